@@ -2,12 +2,19 @@ package ru.yandex.practicum.filmorate;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FilmorateApplication {
+    private static final int STARTUP_EVENTS_CAPACITY = 4096;
 
     public static void main(String[] args) {
-        SpringApplication.run(FilmorateApplication.class, args);
+        SpringApplication application = new SpringApplication(FilmorateApplication.class);
+
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_EVENTS_CAPACITY));
+        application.run(args);
     }
 
 }
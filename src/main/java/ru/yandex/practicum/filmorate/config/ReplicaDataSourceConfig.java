@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaLagMonitor;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaRoutingDataSource;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaSelector;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+@ConditionalOnProperty(name = "filmorate.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+    @Bean
+    public ReplicaSelector replicaSelector(@Value("${filmorate.datasource.replica.urls}") List<String> urls,
+                                           @Value("${filmorate.datasource.replica.max-lag-millis:2000}") long maxLag) {
+        return new ReplicaSelector(urls.size(), maxLag);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties, ReplicaSelector replicaSelector,
+            @Value("${filmorate.datasource.replica.urls}") List<String> urls) {
+        List<DataSource> replicas = urls.stream()
+                .map(url -> properties.initializeDataSourceBuilder().url(url).build())
+                .collect(Collectors.toList());
+        return new ReplicaRoutingDataSource(properties.initializeDataSourceBuilder().build(), replicas,
+                replicaSelector);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaSelector replicaSelector) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicaSelector);
+    }
+}
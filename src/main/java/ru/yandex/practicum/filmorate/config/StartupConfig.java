@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+import ru.yandex.practicum.filmorate.invalidation.InvalidationBus;
+import ru.yandex.practicum.filmorate.service.StartupWarmup;
+
+import java.util.Arrays;
+
+@Configuration
+public class StartupConfig {
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> StartupWarmup.class.isAssignableFrom(beanType)
+                || InvalidationBus.class.isAssignableFrom(beanType)
+                || Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.yandex.practicum.filmorate.controller.ReadYourWritesInterceptor;
+import ru.yandex.practicum.filmorate.controller.WriteAdmissionInterceptor;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final WriteAdmissionInterceptor writeAdmissionInterceptor;
+    private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
+    public WebConfig(WriteAdmissionInterceptor writeAdmissionInterceptor,
+                     ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor) {
+        this.writeAdmissionInterceptor = writeAdmissionInterceptor;
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(writeAdmissionInterceptor)
+                .addPathPatterns("/films/*/like/*", "/users/*/friends/*");
+        readYourWritesInterceptor.ifAvailable(registry::addInterceptor);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.BulkDeleteJob;
+import ru.yandex.practicum.filmorate.model.FriendshipStats;
+import ru.yandex.practicum.filmorate.service.BulkDeleteService;
+import ru.yandex.practicum.filmorate.service.FriendshipAnalyticsService;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+    private final FriendshipAnalyticsService friendshipAnalyticsService;
+    private final BulkDeleteService bulkDeleteService;
+
+    @Autowired
+    public AdminController(FriendshipAnalyticsService friendshipAnalyticsService,
+                           BulkDeleteService bulkDeleteService) {
+        this.friendshipAnalyticsService = friendshipAnalyticsService;
+        this.bulkDeleteService = bulkDeleteService;
+    }
+
+    @GetMapping("/analytics/friendship")
+    public FriendshipStats getFriendshipStats() {
+        return friendshipAnalyticsService.getStats();
+    }
+
+    @PostMapping("/analytics/friendship")
+    public FriendshipStats computeFriendshipStats() {
+        return friendshipAnalyticsService.computeStats();
+    }
+
+    @GetMapping("/bulk-deletes/{id}")
+    public BulkDeleteJob getBulkDeleteJob(@PathVariable long id) {
+        return bulkDeleteService.getJob(id);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.model.Change;
+import ru.yandex.practicum.filmorate.service.ChangeService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+    private final ChangeService changeService;
+
+    @Autowired
+    public ChangeController(ChangeService changeService) {
+        this.changeService = changeService;
+    }
+
+    @GetMapping
+    public DeferredResult<List<Change>> poll(@RequestParam(name = "since", defaultValue = "0") long since,
+                                             @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                             @RequestParam(name = "timeout", defaultValue = "30000") long timeout) {
+        return changeService.pollChanges(since, limit, timeout);
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(name = "since", defaultValue = "0") long since,
+                             @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeService.streamChanges(lastEventId == null ? since : lastEventId);
+    }
+}
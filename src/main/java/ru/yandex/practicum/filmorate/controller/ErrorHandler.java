@@ -6,16 +6,50 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.GoneException;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 @RestControllerAdvice
 @Slf4j
 public class ErrorHandler {
+    private static final long LOG_WINDOW_MILLIS = 1000;
+    private static final int NOT_FOUND_LOGS_PER_WINDOW = 10;
+    private final AtomicLong notFoundWindowStart = new AtomicLong();
+    private final AtomicInteger notFoundLogged = new AtomicInteger();
+    private final AtomicInteger notFoundSuppressed = new AtomicInteger();
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFoundException(final NotFoundException e) {
-        log.warn("NotFoundException: " + e.getMessage(), e);
+        if (shouldLogNotFound()) {
+            log.warn("NotFoundException: {}", e.getMessage());
+        }
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflictException(final ConflictException e) {
+        log.warn("ConflictException: " + e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.GONE)
+    public ErrorResponse handleGoneException(final GoneException e) {
+        log.warn("GoneException: " + e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleTooManyRequestsException(final TooManyRequestsException e) {
         return new ErrorResponse(e.getMessage());
     }
 
@@ -33,6 +67,26 @@ public class ErrorHandler {
         return new ErrorResponse("Unpredicted error");
     }
 
+    private boolean shouldLogNotFound() {
+        long now = System.currentTimeMillis();
+        long windowStart = notFoundWindowStart.get();
+
+        if (now - windowStart >= LOG_WINDOW_MILLIS && notFoundWindowStart.compareAndSet(windowStart, now)) {
+            int suppressed = notFoundSuppressed.getAndSet(0);
+            notFoundLogged.set(0);
+
+            if (suppressed > 0) {
+                log.warn("NotFoundException: {} more messages suppressed", suppressed);
+            }
+        }
+
+        if (notFoundLogged.incrementAndGet() <= NOT_FOUND_LOGS_PER_WINDOW) {
+            return true;
+        }
+        notFoundSuppressed.incrementAndGet();
+        return false;
+    }
+
     private static class ErrorResponse {
         private final String error;
 
@@ -1,54 +1,106 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.model.BulkDeleteJob;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.service.BulkDeleteService;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.util.ETags;
 
 import javax.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/films")
 public class FilmController {
     private final FilmService filmService;
+    private final BulkDeleteService bulkDeleteService;
 
     @Autowired
-    public FilmController(FilmService filmService) {
+    public FilmController(FilmService filmService, BulkDeleteService bulkDeleteService) {
         this.filmService = filmService;
+        this.bulkDeleteService = bulkDeleteService;
     }
 
     @GetMapping
-    public List<Film> findAll() {
-        return filmService.getFilms();
+    public List<Film> findAll(@RequestParam(name = "ids", required = false) List<Integer> ids,
+                              @RequestParam(name = "genre", required = false) List<Integer> genres,
+                              @RequestParam(name = "mpa", required = false) List<Integer> mpa,
+                              @RequestParam(name = "releasedAfter", required = false)
+                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate releasedAfter,
+                              @RequestParam(name = "minDuration", required = false) Integer minDuration,
+                              @RequestParam(name = "sort", required = false) String sort,
+                              @RequestParam(name = "likedBy", required = false) Integer likedBy) {
+        if (ids != null) {
+            return filmService.getFilmsByIds(ids, likedBy);
+        }
+
+        return filmService.getFilms(FilmFilter.builder()
+                .genres(genres)
+                .mpa(mpa)
+                .releasedAfter(releasedAfter)
+                .minDuration(minDuration)
+                .sort(sort)
+                .build(), likedBy);
+    }
+
+    @GetMapping(value = "/popular/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMostPopular(@RequestParam(name = "count", defaultValue = "10") int count) {
+        return filmService.streamMostPopularFilms(count);
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam(name = "q") String query,
+                             @RequestParam(name = "count", defaultValue = "20") int count,
+                             @RequestParam(name = "sortBy", required = false) String sortBy,
+                             @RequestParam(name = "likedBy", required = false) Integer likedBy) {
+        return filmService.searchFilms(query, count, "likes".equals(sortBy), likedBy);
     }
 
     @GetMapping("/{id}")
-    public Film findById(@PathVariable int id) {
-        return filmService.getFilmById(id);
+    public ResponseEntity<Film> findById(@PathVariable int id,
+                                         @RequestParam(name = "likedBy", required = false) Integer likedBy) {
+        return withETag(filmService.getFilmById(id, likedBy));
     }
 
     @GetMapping("/popular")
-    public List<Film> findMostPopular(@RequestParam(name = "count", defaultValue = "10") int count) {
-        return filmService.getMostPopularFilms(count);
+    public List<Film> findMostPopular(@RequestParam(name = "count", defaultValue = "10") int count,
+                                      @RequestParam(name = "likedBy", required = false) Integer likedBy) {
+        return filmService.getMostPopularFilms(count, likedBy);
     }
 
     @PostMapping
-    public Film create(@Valid @RequestBody Film film) {
-        return filmService.addFilm(film);
+    public ResponseEntity<Film> create(@Valid @RequestBody Film film) {
+        return withETag(filmService.addFilm(film));
     }
 
     @PutMapping
-    public Film update(@Valid @RequestBody Film film) {
-        return filmService.updateFilm(film);
+    public ResponseEntity<Film> update(@Valid @RequestBody Film film,
+                                       @RequestHeader(name = "If-Match", required = false) String ifMatch) {
+        Integer version = ETags.parseVersion(ifMatch);
+
+        if (version != null) {
+            film.setVersion(version);
+        }
+        return withETag(filmService.updateFilm(film));
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -56,6 +108,12 @@ public class FilmController {
         filmService.addLike(id, userId);
     }
 
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkDeleteJob deleteAll(@RequestParam(name = "ids") List<Integer> ids) {
+        return bulkDeleteService.deleteFilms(ids);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable int id) {
         filmService.deleteFilm(id);
@@ -66,4 +124,8 @@ public class FilmController {
         filmService.deleteLike(id, userId);
     }
 
+    private static ResponseEntity<Film> withETag(Film film) {
+        return ResponseEntity.ok().eTag(ETags.format(film.getVersion())).body(film);
+    }
+
 }
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.datasource.replica.urls")
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+    private final Cache<Long, Long> lastWrites;
+
+    public ReadYourWritesInterceptor(
+            @Value("${filmorate.datasource.replica.sticky-millis:10000}") long stickyMillis,
+            @Value("${filmorate.datasource.replica.sticky-clients:65536}") long stickyClients) {
+        this.lastWrites = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(stickyMillis))
+                .maximumSize(stickyClients)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long lastWrite = lastWrites.getIfPresent(WriteAdmissionInterceptor.clientKey(request));
+
+        if (lastWrite != null) {
+            ReplicaRouting.readAfter(lastWrite);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        long lastWrite = ReplicaRouting.lastWrite();
+
+        if (lastWrite > 0) {
+            lastWrites.asMap().merge(WriteAdmissionInterceptor.clientKey(request), lastWrite, Math::max);
+        }
+        ReplicaRouting.reset();
+    }
+}
@@ -1,16 +1,26 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.BulkDeleteJob;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.BulkDeleteService;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.util.ETags;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -19,20 +29,28 @@ import java.util.List;
 @RequestMapping("/users")
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final BulkDeleteService bulkDeleteService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, FilmService filmService, BulkDeleteService bulkDeleteService) {
         this.userService = userService;
+        this.filmService = filmService;
+        this.bulkDeleteService = bulkDeleteService;
     }
 
     @GetMapping
-    public List<User> findAll() {
+    public List<User> findAll(@RequestParam(name = "ids", required = false) List<Integer> ids) {
+        if (ids != null) {
+            return userService.getUsersByIds(ids);
+        }
+
         return userService.getUsers();
     }
 
     @GetMapping("/{id}")
-    public User findById(@PathVariable int id) {
-        return userService.getUserById(id);
+    public ResponseEntity<User> findById(@PathVariable int id) {
+        return withETag(userService.getUserById(id));
     }
 
     @GetMapping("/{id}/friends")
@@ -40,19 +58,38 @@ public class UserController {
         return userService.getFriends(id);
     }
 
+    @GetMapping("/{id}/likes")
+    public List<Film> findLikedFilms(@PathVariable int id,
+                                     @RequestParam(name = "after", defaultValue = "0") int after,
+                                     @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return filmService.getLikedFilms(id, after, limit);
+    }
+
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> findFriendshipPath(@PathVariable int id, @PathVariable int otherId,
+                                         @RequestParam(name = "maxHops", defaultValue = "6") int maxHops) {
+        return userService.getFriendshipPath(id, otherId, maxHops);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> findCommonFriends(@PathVariable int id, @PathVariable int otherId) {
         return userService.getCommonFriends(id, otherId);
     }
 
     @PostMapping
-    public User create(@Valid @RequestBody User user) {
-        return userService.addUser(user);
+    public ResponseEntity<User> create(@Valid @RequestBody User user) {
+        return withETag(userService.addUser(user));
     }
 
     @PutMapping
-    public User update(@Valid @RequestBody User user) {
-        return userService.updateUser(user);
+    public ResponseEntity<User> update(@Valid @RequestBody User user,
+                                       @RequestHeader(name = "If-Match", required = false) String ifMatch) {
+        Integer version = ETags.parseVersion(ifMatch);
+
+        if (version != null) {
+            user.setVersion(version);
+        }
+        return withETag(userService.updateUser(user));
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -65,8 +102,18 @@ public class UserController {
         userService.deleteFriend(id, friendId);
     }
 
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BulkDeleteJob deleteAll(@RequestParam(name = "ids") List<Integer> ids) {
+        return bulkDeleteService.deleteUsers(ids);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable int id) {
         userService.deleteUser(id);
     }
+
+    private static ResponseEntity<User> withETag(User user) {
+        return ResponseEntity.ok().eTag(ETags.format(user.getVersion())).body(user);
+    }
 }
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.exception.TooManyRequestsException;
+import ru.yandex.practicum.filmorate.util.TokenBucketLimiter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+@Component
+public class WriteAdmissionInterceptor implements HandlerInterceptor {
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final long USER_KEY_TAG = 1L << 32;
+    private final TokenBucketLimiter userLimiter;
+    private final TokenBucketLimiter clientLimiter;
+    private final Semaphore concurrentWrites;
+
+    public WriteAdmissionInterceptor(
+            @Value("${filmorate.ratelimit.user.permits-per-second:5}") double userRate,
+            @Value("${filmorate.ratelimit.user.burst:20}") int userBurst,
+            @Value("${filmorate.ratelimit.client.permits-per-second:20}") double clientRate,
+            @Value("${filmorate.ratelimit.client.burst:50}") int clientBurst,
+            @Value("${filmorate.ratelimit.capacity:65536}") int capacity,
+            @Value("${filmorate.ratelimit.max-concurrent-writes:32}") int maxConcurrentWrites) {
+        this.userLimiter = new TokenBucketLimiter(userRate, userBurst, capacity);
+        this.clientLimiter = new TokenBucketLimiter(clientRate, clientBurst, capacity);
+        this.concurrentWrites = new Semaphore(maxConcurrentWrites);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"PUT".equals(request.getMethod()) && !"DELETE".equals(request.getMethod())) {
+            return true;
+        }
+
+        if (!clientLimiter.tryAcquire(clientKey(request))) {
+            throw reject(response, "Too many write requests from client");
+        }
+
+        Integer userId = actingUserId(request);
+        if (userId != null && !userLimiter.tryAcquire(USER_KEY_TAG | userId)) {
+            throw reject(response, String.format("Too many write requests from user %d", userId));
+        }
+
+        if (!concurrentWrites.tryAcquire()) {
+            throw reject(response, "Server is busy, try again later");
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if ("PUT".equals(request.getMethod()) || "DELETE".equals(request.getMethod())) {
+            concurrentWrites.release();
+        }
+    }
+
+    private static TooManyRequestsException reject(HttpServletResponse response, String message) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        return new TooManyRequestsException(message);
+    }
+
+    private static Integer actingUserId(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if (variables == null) {
+            return null;
+        }
+
+        String userId = variables.containsKey("userId") ? variables.get("userId") : variables.get("id");
+        try {
+            return userId == null ? null : Integer.valueOf(userId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    static long clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId == null || clientId.isBlank()) {
+            clientId = request.getRemoteAddr();
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < clientId.length(); i++) {
+            hash = (hash ^ clientId.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -6,9 +6,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class NotFoundException extends RuntimeException {
     public NotFoundException() {
+        this(null);
     }
 
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class FriendshipGraph {
+    private final BitSet users;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+
+    private FriendshipGraph(BitSet users, int[] outOffsets, int[] outTargets, int[] inOffsets, int[] inTargets) {
+        this.users = users;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inTargets = inTargets;
+    }
+
+    public static FriendshipGraph build(BitSet users, int[] userIds, int[] friendIds, int size) {
+        int nodeCount = Math.max(users.length(), Math.max(maxId(userIds, size), maxId(friendIds, size)) + 1);
+        int[] outOffsets = new int[nodeCount + 1];
+        int[] inOffsets = new int[nodeCount + 1];
+
+        for (int i = 0; i < size; i++) {
+            outOffsets[userIds[i] + 1]++;
+            inOffsets[friendIds[i] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            outOffsets[node + 1] += outOffsets[node];
+            inOffsets[node + 1] += inOffsets[node];
+        }
+
+        int[] outTargets = new int[size];
+        int[] inTargets = new int[size];
+        int[] outCursor = Arrays.copyOf(outOffsets, nodeCount);
+        int[] inCursor = Arrays.copyOf(inOffsets, nodeCount);
+        for (int i = 0; i < size; i++) {
+            outTargets[outCursor[userIds[i]]++] = friendIds[i];
+            inTargets[inCursor[friendIds[i]]++] = userIds[i];
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            Arrays.sort(outTargets, outOffsets[node], outOffsets[node + 1]);
+            Arrays.sort(inTargets, inOffsets[node], inOffsets[node + 1]);
+        }
+
+        return new FriendshipGraph(users, outOffsets, outTargets, inOffsets, inTargets);
+    }
+
+    public int nodeCount() {
+        return outOffsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    public boolean isUser(int node) {
+        return users.get(node);
+    }
+
+    public int userCount() {
+        return users.cardinality();
+    }
+
+    public int outDegree(int node) {
+        return outOffsets[node + 1] - outOffsets[node];
+    }
+
+    public int inDegree(int node) {
+        return inOffsets[node + 1] - inOffsets[node];
+    }
+
+    public int outStart(int node) {
+        return outOffsets[node];
+    }
+
+    public int outEnd(int node) {
+        return outOffsets[node + 1];
+    }
+
+    public int outTarget(int index) {
+        return outTargets[index];
+    }
+
+    public int inStart(int node) {
+        return inOffsets[node];
+    }
+
+    public int inEnd(int node) {
+        return inOffsets[node + 1];
+    }
+
+    public int inTarget(int index) {
+        return inTargets[index];
+    }
+
+    public boolean hasEdge(int from, int to) {
+        return from < nodeCount() && Arrays.binarySearch(outTargets, outOffsets[from], outOffsets[from + 1], to) >= 0;
+    }
+
+    private static int maxId(int[] ids, int size) {
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, ids[i]);
+        }
+        return max;
+    }
+}
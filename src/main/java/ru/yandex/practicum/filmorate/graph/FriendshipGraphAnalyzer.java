@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import ru.yandex.practicum.filmorate.model.FriendshipStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+public class FriendshipGraphAnalyzer {
+    private final ForkJoinPool pool;
+
+    public FriendshipGraphAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public FriendshipStats analyze(FriendshipGraph graph, int topCount) {
+        try {
+            return pool.submit(() -> compute(graph, topCount)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Friendship analytics is interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Friendship analytics failed", e.getCause());
+        }
+    }
+
+    private static FriendshipStats compute(FriendshipGraph graph, int topCount) {
+        int nodeCount = graph.nodeCount();
+        int reciprocal = IntStream.range(0, nodeCount).parallel()
+                .map(node -> countReciprocal(graph, node))
+                .sum();
+        AtomicIntegerArray parents = unionComponents(graph);
+        int[] componentSizes = new int[nodeCount];
+        int componentsCount = 0;
+        int largestComponentSize = 0;
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (graph.isUser(node)) {
+                int root = find(parents, node);
+                if (componentSizes[root]++ == 0) {
+                    componentsCount++;
+                }
+                largestComponentSize = Math.max(largestComponentSize, componentSizes[root]);
+            }
+        }
+
+        return FriendshipStats.builder()
+                .usersCount(graph.userCount())
+                .friendshipsCount(graph.edgeCount())
+                .mutualPairsCount(reciprocal / 2)
+                .reciprocity(graph.edgeCount() == 0 ? 0 : (double) reciprocal / graph.edgeCount())
+                .componentsCount(componentsCount)
+                .largestComponentSize(largestComponentSize)
+                .degreeDistribution(degreeDistribution(graph))
+                .topInfluencers(topInfluencers(graph, topCount))
+                .build();
+    }
+
+    private static int countReciprocal(FriendshipGraph graph, int node) {
+        int count = 0;
+        for (int i = graph.outStart(node); i < graph.outEnd(node); i++) {
+            if (graph.hasEdge(graph.outTarget(i), node)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static AtomicIntegerArray unionComponents(FriendshipGraph graph) {
+        AtomicIntegerArray parents = new AtomicIntegerArray(graph.nodeCount());
+
+        IntStream.range(0, graph.nodeCount()).parallel().forEach(node -> parents.set(node, node));
+        IntStream.range(0, graph.nodeCount()).parallel().forEach(node -> {
+            for (int i = graph.outStart(node); i < graph.outEnd(node); i++) {
+                union(parents, node, graph.outTarget(i));
+            }
+        });
+        return parents;
+    }
+
+    private static void union(AtomicIntegerArray parents, int first, int second) {
+        while (true) {
+            int firstRoot = find(parents, first);
+            int secondRoot = find(parents, second);
+
+            if (firstRoot == secondRoot) {
+                return;
+            }
+
+            int child = Math.max(firstRoot, secondRoot);
+            int root = Math.min(firstRoot, secondRoot);
+            if (parents.compareAndSet(child, child, root)) {
+                return;
+            }
+        }
+    }
+
+    private static int find(AtomicIntegerArray parents, int node) {
+        while (true) {
+            int parent = parents.get(node);
+            if (parent == node) {
+                return node;
+            }
+
+            int grandparent = parents.get(parent);
+            parents.compareAndSet(node, parent, grandparent);
+            node = grandparent;
+        }
+    }
+
+    private static SortedMap<Integer, Integer> degreeDistribution(FriendshipGraph graph) {
+        int maxDegree = IntStream.range(0, graph.nodeCount()).parallel()
+                .map(graph::outDegree)
+                .max()
+                .orElse(0);
+        AtomicIntegerArray histogram = new AtomicIntegerArray(maxDegree + 1);
+
+        IntStream.range(0, graph.nodeCount()).parallel()
+                .filter(graph::isUser)
+                .forEach(node -> histogram.incrementAndGet(graph.outDegree(node)));
+
+        SortedMap<Integer, Integer> distribution = new TreeMap<>();
+        for (int degree = 0; degree <= maxDegree; degree++) {
+            if (histogram.get(degree) > 0) {
+                distribution.put(degree, histogram.get(degree));
+            }
+        }
+        return distribution;
+    }
+
+    private static List<FriendshipStats.Influencer> topInfluencers(FriendshipGraph graph, int topCount) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(topCount + 1, (a, b) -> graph.inDegree(a) != graph.inDegree(b)
+                ? Integer.compare(graph.inDegree(a), graph.inDegree(b))
+                : Integer.compare(b, a));
+
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            if (graph.isUser(node) && graph.inDegree(node) > 0) {
+                heap.add(node);
+                if (heap.size() > topCount) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<FriendshipStats.Influencer> influencers = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            influencers.add(0, FriendshipStats.Influencer.builder()
+                    .userId(node)
+                    .followers(graph.inDegree(node))
+                    .friends(graph.outDegree(node))
+                    .build());
+        }
+        return influencers;
+    }
+}
@@ -0,0 +1,328 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class FriendshipGraphIndex {
+    private static final int COMPACTION_THRESHOLD = 1024;
+    private static final int[] NO_PATH = new int[0];
+    private static final int[] NO_FRIENDS = new int[0];
+
+    private final Map<Integer, int[]> outOverlay = new HashMap<>();
+    private final Map<Integer, int[]> inOverlay = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private FriendshipGraph graph = FriendshipGraph.build(new BitSet(), NO_FRIENDS, NO_FRIENDS, 0);
+
+    public void rebuild(FriendshipGraph graph) {
+        lock.writeLock().lock();
+        try {
+            this.graph = graph;
+            outOverlay.clear();
+            inOverlay.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addEdge(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            outOverlay.put(userId, with(outFriends(userId), friendId));
+            inOverlay.put(friendId, with(inFriends(friendId), userId));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeEdge(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            outOverlay.put(userId, without(outFriends(userId), friendId));
+            inOverlay.put(friendId, without(inFriends(friendId), userId));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void replaceFriends(int userId, int[] friendIds) {
+        lock.writeLock().lock();
+        try {
+            int[] desired = Arrays.stream(friendIds).sorted().distinct().toArray();
+
+            for (int friendId : outFriends(userId)) {
+                if (Arrays.binarySearch(desired, friendId) < 0) {
+                    inOverlay.put(friendId, without(inFriends(friendId), userId));
+                }
+            }
+            for (int friendId : desired) {
+                inOverlay.put(friendId, with(inFriends(friendId), userId));
+            }
+            outOverlay.put(userId, desired);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            for (int friendId : outFriends(userId)) {
+                inOverlay.put(friendId, without(inFriends(friendId), userId));
+            }
+            for (int followerId : inFriends(userId)) {
+                outOverlay.put(followerId, without(outFriends(followerId), userId));
+            }
+            outOverlay.put(userId, NO_FRIENDS);
+            inOverlay.put(userId, NO_FRIENDS);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int[] shortestPath(int fromId, int toId, int maxHops) {
+        if (fromId == toId) {
+            return new int[]{fromId};
+        }
+
+        lock.readLock().lock();
+        Scratch buffers = scratch.get();
+        try {
+            return buffers.search(this, fromId, toId, maxHops);
+        } finally {
+            buffers.reset();
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] outFriends(int userId) {
+        int[] updated = outOverlay.get(userId);
+        if (updated != null) {
+            return updated;
+        }
+        return userId < graph.nodeCount()
+                ? copyRange(graph, graph.outStart(userId), graph.outEnd(userId), true)
+                : NO_FRIENDS;
+    }
+
+    private int[] inFriends(int userId) {
+        int[] updated = inOverlay.get(userId);
+        if (updated != null) {
+            return updated;
+        }
+        return userId < graph.nodeCount()
+                ? copyRange(graph, graph.inStart(userId), graph.inEnd(userId), false)
+                : NO_FRIENDS;
+    }
+
+    private void compactIfNeeded() {
+        if (outOverlay.size() + inOverlay.size() < COMPACTION_THRESHOLD) {
+            return;
+        }
+
+        int nodeCount = graph.nodeCount();
+        for (int userId : outOverlay.keySet()) {
+            nodeCount = Math.max(nodeCount, userId + 1);
+        }
+
+        int[][] rows = {new int[Math.max(16, graph.edgeCount())], new int[Math.max(16, graph.edgeCount())]};
+        int size = 0;
+        for (int userId = 0; userId < nodeCount; userId++) {
+            for (int friendId : outFriends(userId)) {
+                if (size == rows[0].length) {
+                    rows[0] = Arrays.copyOf(rows[0], size * 2);
+                    rows[1] = Arrays.copyOf(rows[1], size * 2);
+                }
+                rows[0][size] = userId;
+                rows[1][size] = friendId;
+                size++;
+            }
+        }
+
+        graph = FriendshipGraph.build(new BitSet(), rows[0], rows[1], size);
+        outOverlay.clear();
+        inOverlay.clear();
+    }
+
+    private static int[] copyRange(FriendshipGraph graph, int from, int to, boolean out) {
+        int[] friends = new int[to - from];
+        for (int i = from; i < to; i++) {
+            friends[i - from] = out ? graph.outTarget(i) : graph.inTarget(i);
+        }
+        return friends;
+    }
+
+    private static int[] with(int[] friends, int friendId) {
+        int position = Arrays.binarySearch(friends, friendId);
+        if (position >= 0) {
+            return friends;
+        }
+
+        int insertion = -position - 1;
+        int[] updated = new int[friends.length + 1];
+        System.arraycopy(friends, 0, updated, 0, insertion);
+        updated[insertion] = friendId;
+        System.arraycopy(friends, insertion, updated, insertion + 1, friends.length - insertion);
+        return updated;
+    }
+
+    private static int[] without(int[] friends, int friendId) {
+        int position = Arrays.binarySearch(friends, friendId);
+        if (position < 0) {
+            return friends;
+        }
+
+        int[] updated = new int[friends.length - 1];
+        System.arraycopy(friends, 0, updated, 0, position);
+        System.arraycopy(friends, position + 1, updated, position, friends.length - position - 1);
+        return updated;
+    }
+
+    private static class Scratch {
+        private long[] forwardVisited = new long[1];
+        private long[] backwardVisited = new long[1];
+        private int[] forwardParents = new int[64];
+        private int[] backwardParents = new int[64];
+        private int[] forwardDepths = new int[64];
+        private int[] backwardDepths = new int[64];
+        private int[] forwardQueue = new int[64];
+        private int[] backwardQueue = new int[64];
+        private int forwardSize;
+        private int backwardSize;
+
+        private int[] search(FriendshipGraphIndex index, int fromId, int toId, int maxHops) {
+            ensureCapacity(Math.max(index.graph.nodeCount(), Math.max(fromId, toId) + 1));
+            forwardSize = visit(forwardVisited, forwardParents, forwardDepths, forwardQueue, 0, fromId, -1, 0);
+            backwardSize = visit(backwardVisited, backwardParents, backwardDepths, backwardQueue, 0, toId, -1, 0);
+            int forwardHead = 0;
+            int backwardHead = 0;
+            int forwardDepth = 0;
+            int backwardDepth = 0;
+
+            while (forwardDepth + backwardDepth < maxHops
+                    && forwardHead < forwardSize && backwardHead < backwardSize) {
+                boolean forward = forwardSize - forwardHead <= backwardSize - backwardHead;
+                int bestMeet = -1;
+                int bestLength = Integer.MAX_VALUE;
+                int levelEnd = forward ? forwardSize : backwardSize;
+
+                for (int head = forward ? forwardHead : backwardHead; head < levelEnd; head++) {
+                    int node = forward ? forwardQueue[head] : backwardQueue[head];
+                    int depth = (forward ? forwardDepths[node] : backwardDepths[node]) + 1;
+                    int[] updated = forward ? index.outOverlay.get(node) : index.inOverlay.get(node);
+                    int start = 0;
+                    int end = 0;
+
+                    if (updated != null) {
+                        end = updated.length;
+                    } else if (node < index.graph.nodeCount()) {
+                        start = forward ? index.graph.outStart(node) : index.graph.inStart(node);
+                        end = forward ? index.graph.outEnd(node) : index.graph.inEnd(node);
+                    }
+
+                    for (int i = start; i < end; i++) {
+                        int next = updated != null ? updated[i]
+                                : forward ? index.graph.outTarget(i) : index.graph.inTarget(i);
+                        ensureCapacity(next + 1);
+
+                        if (forward && !isSet(forwardVisited, next)) {
+                            forwardSize = visit(forwardVisited, forwardParents, forwardDepths, forwardQueue,
+                                    forwardSize, next, node, depth);
+                        } else if (!forward && !isSet(backwardVisited, next)) {
+                            backwardSize = visit(backwardVisited, backwardParents, backwardDepths, backwardQueue,
+                                    backwardSize, next, node, depth);
+                        } else {
+                            continue;
+                        }
+
+                        if (isSet(forward ? backwardVisited : forwardVisited, next)) {
+                            int length = depth + (forward ? backwardDepths[next] : forwardDepths[next]);
+                            if (length < bestLength) {
+                                bestLength = length;
+                                bestMeet = next;
+                            }
+                        }
+                    }
+                }
+
+                if (forward) {
+                    forwardHead = levelEnd;
+                    forwardDepth++;
+                } else {
+                    backwardHead = levelEnd;
+                    backwardDepth++;
+                }
+                if (bestMeet >= 0) {
+                    return bestLength <= maxHops ? path(bestMeet, bestLength) : NO_PATH;
+                }
+            }
+
+            return NO_PATH;
+        }
+
+        private int[] path(int meet, int length) {
+            int[] path = new int[length + 1];
+            int position = forwardDepths[meet];
+
+            for (int node = meet; position >= 0; node = forwardParents[node]) {
+                path[position--] = node;
+            }
+            position = forwardDepths[meet] + 1;
+            for (int node = backwardParents[meet]; position <= length; node = backwardParents[node]) {
+                path[position++] = node;
+            }
+            return path;
+        }
+
+        private int visit(long[] visited, int[] parents, int[] depths, int[] queue, int size,
+                          int node, int parent, int depth) {
+            visited[node >>> 6] |= 1L << node;
+            parents[node] = parent;
+            depths[node] = depth;
+            queue[size] = node;
+            return size + 1;
+        }
+
+        private void reset() {
+            for (int i = 0; i < forwardSize; i++) {
+                forwardVisited[forwardQueue[i] >>> 6] = 0;
+            }
+            for (int i = 0; i < backwardSize; i++) {
+                backwardVisited[backwardQueue[i] >>> 6] = 0;
+            }
+            forwardSize = 0;
+            backwardSize = 0;
+        }
+
+        private void ensureCapacity(int nodeCount) {
+            if (nodeCount <= forwardParents.length) {
+                return;
+            }
+
+            int capacity = Math.max(nodeCount, forwardParents.length * 2);
+            forwardVisited = Arrays.copyOf(forwardVisited, (capacity >>> 6) + 1);
+            backwardVisited = Arrays.copyOf(backwardVisited, (capacity >>> 6) + 1);
+            forwardParents = Arrays.copyOf(forwardParents, capacity);
+            backwardParents = Arrays.copyOf(backwardParents, capacity);
+            forwardDepths = Arrays.copyOf(forwardDepths, capacity);
+            backwardDepths = Arrays.copyOf(backwardDepths, capacity);
+            forwardQueue = Arrays.copyOf(forwardQueue, capacity);
+            backwardQueue = Arrays.copyOf(backwardQueue, capacity);
+        }
+
+        private static boolean isSet(long[] visited, int node) {
+            return (visited[node >>> 6] & 1L << node) != 0;
+        }
+    }
+}
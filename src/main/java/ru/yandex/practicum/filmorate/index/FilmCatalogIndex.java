@@ -0,0 +1,239 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+@Component
+public class FilmCatalogIndex {
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Integer, BitSet> genresFilms = new HashMap<>();
+    private final Map<Integer, BitSet> mpaFilms = new HashMap<>();
+    private final BitSet allFilms = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Ordering byReleaseDate;
+    private volatile Ordering byDuration;
+
+    public void rebuild(Collection<Film> films) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            genresFilms.clear();
+            mpaFilms.clear();
+            allFilms.clear();
+            films.forEach(this::addFilm);
+            invalidateOrderings();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Film film) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(film.getId());
+            addFilm(film);
+            invalidateOrderings();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+            invalidateOrderings();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int[] query(FilmFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) allFilms.clone();
+
+            if (filter.getGenres() != null && !filter.getGenres().isEmpty()) {
+                result.and(union(genresFilms, filter.getGenres()));
+            }
+            if (filter.getMpa() != null && !filter.getMpa().isEmpty()) {
+                result.and(union(mpaFilms, filter.getMpa()));
+            }
+            if (filter.getReleasedAfter() != null) {
+                result.and(releaseDateOrdering().idsAbove(filter.getReleasedAfter().toEpochDay() + 1));
+            }
+            if (filter.getMinDuration() != null) {
+                result.and(durationOrdering().idsAbove(filter.getMinDuration()));
+            }
+
+            return sort(result, filter.getSort());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] sort(BitSet films, String sort) {
+        if (sort == null || sort.equals("id")) {
+            return films.stream().toArray();
+        }
+
+        boolean descending = sort.startsWith("-");
+        String field = descending ? sort.substring(1) : sort;
+        Ordering ordering;
+
+        switch (field) {
+            case "releaseDate":
+                ordering = releaseDateOrdering();
+                break;
+            case "duration":
+                ordering = durationOrdering();
+                break;
+            default:
+                throw new ValidationException(String.format("Unknown sort field %s", field));
+        }
+
+        return ordering.select(films, descending);
+    }
+
+    private BitSet union(Map<Integer, BitSet> bitmaps, List<Integer> keys) {
+        BitSet union = new BitSet();
+
+        for (Integer key : keys) {
+            BitSet films = bitmaps.get(key);
+            if (films != null) {
+                union.or(films);
+            }
+        }
+        return union;
+    }
+
+    private Ordering releaseDateOrdering() {
+        Ordering ordering = byReleaseDate;
+        if (ordering == null) {
+            ordering = new Ordering(entries, entry -> entry.releaseDay);
+            byReleaseDate = ordering;
+        }
+        return ordering;
+    }
+
+    private Ordering durationOrdering() {
+        Ordering ordering = byDuration;
+        if (ordering == null) {
+            ordering = new Ordering(entries, entry -> entry.duration);
+            byDuration = ordering;
+        }
+        return ordering;
+    }
+
+    private void invalidateOrderings() {
+        byReleaseDate = null;
+        byDuration = null;
+    }
+
+    private void addFilm(Film film) {
+        int filmId = film.getId();
+        int[] genreIds = film.getGenres() == null ? new int[0]
+                : film.getGenres().stream().mapToInt(Genre::getId).distinct().toArray();
+        Entry entry = new Entry(film.getMpa().getId(), genreIds,
+                film.getReleaseDate().toEpochDay(), film.getDuration());
+
+        entries.put(filmId, entry);
+        allFilms.set(filmId);
+        mpaFilms.computeIfAbsent(entry.mpaId, id -> new BitSet()).set(filmId);
+        for (int genreId : genreIds) {
+            genresFilms.computeIfAbsent(genreId, id -> new BitSet()).set(filmId);
+        }
+    }
+
+    private void removeFilm(int filmId) {
+        Entry entry = entries.remove(filmId);
+        if (entry == null) {
+            return;
+        }
+
+        allFilms.clear(filmId);
+        mpaFilms.get(entry.mpaId).clear(filmId);
+        for (int genreId : entry.genreIds) {
+            genresFilms.get(genreId).clear(filmId);
+        }
+    }
+
+    private static class Entry {
+        private final int mpaId;
+        private final int[] genreIds;
+        private final long releaseDay;
+        private final int duration;
+
+        Entry(int mpaId, int[] genreIds, long releaseDay, int duration) {
+            this.mpaId = mpaId;
+            this.genreIds = genreIds;
+            this.releaseDay = releaseDay;
+            this.duration = duration;
+        }
+    }
+
+    private static class Ordering {
+        private final int[] ids;
+        private final long[] keys;
+
+        Ordering(Map<Integer, Entry> entries, ToLongFunction<Entry> key) {
+            Integer[] sorted = entries.keySet().toArray(new Integer[0]);
+            Arrays.sort(sorted, Comparator.<Integer>comparingLong(id -> key.applyAsLong(entries.get(id)))
+                    .thenComparingInt(id -> id));
+
+            ids = new int[sorted.length];
+            keys = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i];
+                keys[i] = key.applyAsLong(entries.get(sorted[i]));
+            }
+        }
+
+        BitSet idsAbove(long minKey) {
+            int from = 0;
+            int to = keys.length;
+
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (keys[mid] < minKey) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+
+            BitSet result = new BitSet();
+            for (int i = from; i < ids.length; i++) {
+                result.set(ids[i]);
+            }
+            return result;
+        }
+
+        int[] select(BitSet films, boolean descending) {
+            int[] result = new int[films.cardinality()];
+            int count = 0;
+
+            for (int i = 0; i < ids.length && count < result.length; i++) {
+                int id = ids[descending ? ids.length - 1 - i : i];
+                if (films.get(id)) {
+                    result[count++] = id;
+                }
+            }
+            return result;
+        }
+    }
+}
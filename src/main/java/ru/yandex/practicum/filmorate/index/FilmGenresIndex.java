@@ -0,0 +1,165 @@
+package ru.yandex.practicum.filmorate.index;
+
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class FilmGenresIndex {
+    private static final int COMPACTION_THRESHOLD = 1024;
+    private static final int[] NO_GENRES = new int[0];
+
+    private final Genre[] dictionary;
+    private final Map<Integer, int[]> overlay = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] offsets;
+    private int[] values;
+
+    private FilmGenresIndex(Genre[] dictionary, int[] offsets, int[] values) {
+        this.dictionary = dictionary;
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    public static FilmGenresIndex build(Genre[] dictionary, int[] filmIds, int[] genreIds, int size) {
+        int maxFilmId = 0;
+        for (int i = 0; i < size; i++) {
+            maxFilmId = Math.max(maxFilmId, filmIds[i]);
+        }
+
+        int[] offsets = new int[maxFilmId + 2];
+        for (int i = 0; i < size; i++) {
+            offsets[filmIds[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+
+        int[] values = new int[size];
+        int[] positions = Arrays.copyOf(offsets, offsets.length);
+        for (int i = 0; i < size; i++) {
+            values[positions[filmIds[i]]++] = genreIds[i];
+        }
+        for (int filmId = 0; filmId <= maxFilmId; filmId++) {
+            Arrays.sort(values, offsets[filmId], offsets[filmId + 1]);
+        }
+
+        return new FilmGenresIndex(dictionary, offsets, values);
+    }
+
+    public List<Genre> get(int filmId) {
+        lock.readLock().lock();
+        try {
+            int[] updated = overlay.get(filmId);
+            if (updated != null) {
+                return view(updated, 0, updated.length);
+            }
+            if (filmId < 0 || filmId + 1 >= offsets.length) {
+                return Collections.emptyList();
+            }
+
+            return view(values, offsets[filmId], offsets[filmId + 1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Genre> toGenres(int[] genreIds) {
+        int[] sorted = sortedDistinct(genreIds);
+        return view(sorted, 0, sorted.length);
+    }
+
+    public void put(int filmId, int[] genreIds) {
+        int[] sorted = sortedDistinct(genreIds);
+
+        lock.writeLock().lock();
+        try {
+            overlay.put(filmId, sorted);
+            if (overlay.size() >= COMPACTION_THRESHOLD) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact() {
+        int filmsCount = offsets.length - 1;
+        for (int filmId : overlay.keySet()) {
+            filmsCount = Math.max(filmsCount, filmId + 1);
+        }
+
+        int[] newOffsets = new int[filmsCount + 1];
+        int size = values.length;
+        for (Map.Entry<Integer, int[]> entry : overlay.entrySet()) {
+            size += entry.getValue().length - length(entry.getKey());
+        }
+
+        int[] newValues = new int[size];
+        int position = 0;
+        for (int filmId = 0; filmId < filmsCount; filmId++) {
+            newOffsets[filmId] = position;
+            int[] updated = overlay.get(filmId);
+
+            if (updated != null) {
+                System.arraycopy(updated, 0, newValues, position, updated.length);
+                position += updated.length;
+            } else if (filmId + 1 < offsets.length) {
+                int length = length(filmId);
+                System.arraycopy(values, offsets[filmId], newValues, position, length);
+                position += length;
+            }
+        }
+        newOffsets[filmsCount] = position;
+
+        offsets = newOffsets;
+        values = newValues;
+        overlay.clear();
+    }
+
+    private static int[] sortedDistinct(int[] genreIds) {
+        return genreIds.length == 0 ? NO_GENRES : Arrays.stream(genreIds).sorted().distinct().toArray();
+    }
+
+    private int length(int filmId) {
+        return filmId + 1 < offsets.length ? offsets[filmId + 1] - offsets[filmId] : 0;
+    }
+
+    private List<Genre> view(int[] genreIds, int from, int to) {
+        return from == to ? Collections.emptyList() : new GenreList(dictionary, genreIds, from, to);
+    }
+
+    private static class GenreList extends AbstractList<Genre> implements RandomAccess {
+        private final Genre[] dictionary;
+        private final int[] genreIds;
+        private final int from;
+        private final int size;
+
+        GenreList(Genre[] dictionary, int[] genreIds, int from, int to) {
+            this.dictionary = dictionary;
+            this.genreIds = genreIds;
+            this.from = from;
+            this.size = to - from;
+        }
+
+        @Override
+        public Genre get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d, size %d", index, size));
+            }
+            return dictionary[genreIds[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
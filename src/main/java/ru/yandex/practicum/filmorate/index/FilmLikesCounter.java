@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class FilmLikesCounter {
+    private final Map<Integer, Integer> likes = new ConcurrentHashMap<>();
+    private final AtomicLong modCount = new AtomicLong();
+
+    public void reset(Map<Integer, Integer> likesCounts) {
+        likes.clear();
+        likes.putAll(likesCounts);
+        modCount.incrementAndGet();
+    }
+
+    public int get(int filmId) {
+        return likes.getOrDefault(filmId, 0);
+    }
+
+    public void set(int filmId, int count) {
+        if (count > 0) {
+            likes.put(filmId, count);
+        } else {
+            likes.remove(filmId);
+        }
+        modCount.incrementAndGet();
+    }
+
+    public void increment(int filmId) {
+        likes.merge(filmId, 1, Integer::sum);
+        modCount.incrementAndGet();
+    }
+
+    public void decrement(int filmId) {
+        likes.computeIfPresent(filmId, (id, count) -> count > 1 ? count - 1 : null);
+        modCount.incrementAndGet();
+    }
+
+    public void remove(int filmId) {
+        likes.remove(filmId);
+        modCount.incrementAndGet();
+    }
+
+    public long getModCount() {
+        return modCount.get();
+    }
+
+    public Ranking top(int count) {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(count + 1, (a, b) -> a[1] != b[1]
+                ? Long.compare(a[1], b[1])
+                : Long.compare(b[0], a[0]));
+
+        likes.forEach((filmId, filmLikes) -> {
+            heap.add(new long[]{filmId, filmLikes});
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        });
+
+        int size = heap.size();
+        int[] filmIds = new int[size];
+        int[] filmLikes = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            long[] entry = heap.poll();
+            filmIds[i] = (int) entry[0];
+            filmLikes[i] = (int) entry[1];
+        }
+        return new Ranking(filmIds, filmLikes);
+    }
+
+    public static class Ranking {
+        public static final Ranking EMPTY = new Ranking(new int[0], new int[0]);
+        private final int[] filmIds;
+        private final int[] likes;
+
+        private Ranking(int[] filmIds, int[] likes) {
+            this.filmIds = filmIds;
+            this.likes = likes;
+        }
+
+        public int size() {
+            return filmIds.length;
+        }
+
+        public int getFilmId(int rank) {
+            return filmIds[rank];
+        }
+
+        public int getLikes(int rank) {
+            return likes[rank];
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class FilmSearchIndex {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final NavigableMap<String, SortedIntSet> postings = new TreeMap<>();
+    private final Map<Integer, String[]> filmsTokens = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void rebuild(Collection<Film> films) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            filmsTokens.clear();
+            films.forEach(this::addFilm);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Film film) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(film.getId());
+            addFilm(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int filmId) {
+        lock.writeLock().lock();
+        try {
+            removeFilm(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int[] search(String query) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0) {
+            return new int[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+
+            for (String term : terms) {
+                BitSet matches = new BitSet();
+                postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                        .values()
+                        .forEach(ids -> ids.addTo(matches));
+
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.and(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+
+            return result.stream().toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return NO_TOKENS;
+        }
+
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private void addFilm(Film film) {
+        String[] tokens = Arrays.stream(new String[]{film.getName(), film.getDescription()})
+                .flatMap(text -> Arrays.stream(tokenize(text)))
+                .distinct()
+                .toArray(String[]::new);
+
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new SortedIntSet()).add(film.getId());
+        }
+        filmsTokens.put(film.getId(), tokens);
+    }
+
+    private void removeFilm(int filmId) {
+        String[] tokens = filmsTokens.remove(filmId);
+        if (tokens == null) {
+            return;
+        }
+
+        for (String token : tokens) {
+            SortedIntSet ids = postings.get(token);
+            if (ids != null && ids.remove(filmId) && ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+@Component
+@Slf4j
+public class CacheInvalidator {
+    private static final int MAX_TRACKED_VERSIONS = 100_000;
+    private final InvalidationBus bus;
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final Cache<Long, Long> lastVersions = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_VERSIONS)
+            .build();
+    private final List<Consumer<EntityChange>> evictionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<EntityChange>> refreshListeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidator(InvalidationBus bus) {
+        this.bus = bus;
+        bus.subscribe(this::onChange);
+    }
+
+    public void subscribeEvictions(Consumer<EntityChange> listener) {
+        evictionListeners.add(listener);
+    }
+
+    public void subscribeRefreshes(Consumer<EntityChange> listener) {
+        refreshListeners.add(listener);
+    }
+
+    public void publish(EntityChange.Type type, int id, long version) {
+        EntityChange change = new EntityChange(type, id, version, nodeId);
+        afterCommit(() -> {
+            try {
+                bus.publish(change);
+            } catch (RuntimeException e) {
+                log.warn("Entity change {} is not published: {}", change, e.getMessage());
+            }
+        });
+    }
+
+    private void onChange(EntityChange change) {
+        if (change.getOrigin() == nodeId || isOutdated(change)) {
+            return;
+        }
+
+        try {
+            evictionListeners.forEach(listener -> listener.accept(change));
+            refreshListeners.forEach(listener -> listener.accept(change));
+        } catch (RuntimeException e) {
+            log.warn("Entity change {} is not applied: {}", change, e.getMessage());
+        }
+    }
+
+    private boolean isOutdated(EntityChange change) {
+        long key;
+        long version;
+
+        switch (change.getType()) {
+            case FILM_UPDATED:
+                key = change.getId();
+                version = change.getVersion();
+                break;
+            case FILM_DELETED:
+                key = change.getId();
+                version = Long.MAX_VALUE;
+                break;
+            case USER_UPDATED:
+                key = 1L << 32 | change.getId();
+                version = change.getVersion();
+                break;
+            case USER_DELETED:
+                key = 1L << 32 | change.getId();
+                version = Long.MAX_VALUE;
+                break;
+            default:
+                // Likes and friendship events carry no state: receivers reload it from the primary,
+                // so applying a delayed event after a newer one still converges to the committed state.
+                return false;
+        }
+
+        boolean[] outdated = {false};
+        lastVersions.asMap().merge(key, version, (last, current) -> {
+            outdated[0] = current <= last;
+            return Math.max(last, current);
+        });
+        return outdated[0];
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.ByteBuffer;
+
+@Data
+@AllArgsConstructor
+public class EntityChange {
+    public static final int ENCODED_SIZE = 21;
+
+    private final Type type;
+    private final int id;
+    private final long version;
+    private final long origin;
+
+    public byte[] encode() {
+        return ByteBuffer.allocate(ENCODED_SIZE)
+                .put((byte) type.ordinal())
+                .putInt(id)
+                .putLong(version)
+                .putLong(origin)
+                .array();
+    }
+
+    public static EntityChange decode(byte[] data, int offset, int length) {
+        if (length != ENCODED_SIZE) {
+            throw new IllegalArgumentException(String.format("Wrong entity change length %d", length));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        return new EntityChange(Type.values()[buffer.get()], buffer.getInt(), buffer.getLong(), buffer.getLong());
+    }
+
+    public enum Type {
+        FILM_UPDATED,
+        FILM_DELETED,
+        FILM_LIKES_CHANGED,
+        USER_UPDATED,
+        USER_DELETED,
+        FRIENDSHIP_CHANGED
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import java.util.function.Consumer;
+
+public interface InvalidationBus {
+    void publish(EntityChange change);
+
+    void subscribe(Consumer<EntityChange> listener);
+}
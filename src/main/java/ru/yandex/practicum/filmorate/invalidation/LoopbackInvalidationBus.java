@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.invalidation.bus", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationBus implements InvalidationBus {
+    private final List<Consumer<EntityChange>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(EntityChange change) {
+        listeners.forEach(listener -> listener.accept(change));
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChange> listener) {
+        listeners.add(listener);
+    }
+}
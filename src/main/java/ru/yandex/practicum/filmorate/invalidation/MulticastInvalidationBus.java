@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(name = "filmorate.invalidation.bus", havingValue = "multicast")
+@Slf4j
+public class MulticastInvalidationBus implements InvalidationBus, DisposableBean {
+    private final List<Consumer<EntityChange>> listeners = new CopyOnWriteArrayList<>();
+    private final InetAddress group;
+    private final int port;
+    private final MulticastSocket socket;
+    private final Thread receiver;
+
+    public MulticastInvalidationBus(@Value("${filmorate.invalidation.multicast.group:230.0.0.1}") String group,
+                                    @Value("${filmorate.invalidation.multicast.port:4446}") int port,
+                                    @Value("${filmorate.invalidation.multicast.interface:}") String networkInterface)
+            throws IOException {
+        this.group = InetAddress.getByName(group);
+        this.port = port;
+        this.socket = new MulticastSocket(port);
+        this.socket.joinGroup(new InetSocketAddress(this.group, port),
+                networkInterface.isBlank() ? null : NetworkInterface.getByName(networkInterface));
+        this.receiver = new Thread(this::receive, "invalidation-bus-receiver");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    @Override
+    public void publish(EntityChange change) {
+        byte[] data = change.encode();
+
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<EntityChange> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void destroy() {
+        socket.close();
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[EntityChange.ENCODED_SIZE];
+
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+
+            try {
+                socket.receive(packet);
+                EntityChange change = EntityChange.decode(packet.getData(), packet.getOffset(), packet.getLength());
+                listeners.forEach(listener -> listener.accept(change));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Invalidation bus receive failed: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Invalidation bus message dropped: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.io.IOException;
+import java.util.List;
+
+public class FilmSerializer extends StdSerializer<Film> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString GENRES = new SerializedString("genres");
+    private static final SerializableString MPA = new SerializedString("mpa");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString RELEASE_DATE = new SerializedString("releaseDate");
+    private static final SerializableString DURATION = new SerializedString("duration");
+    private static final SerializableString LIKES_COUNT = new SerializedString("likesCount");
+    private static final SerializableString LIKED = new SerializedString("liked");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public FilmSerializer() {
+        super(Film.class);
+    }
+
+    @Override
+    public void serialize(Film film, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(film);
+        gen.writeFieldName(ID);
+        gen.writeNumber(film.getId());
+        gen.writeFieldName(GENRES);
+        writeGenres(film.getGenres(), gen);
+        gen.writeFieldName(MPA);
+        MpaSerializer.write(film.getMpa(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(film.getName());
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(film.getDescription());
+        gen.writeFieldName(RELEASE_DATE);
+        JsonValues.writeDate(film.getReleaseDate(), gen);
+        gen.writeFieldName(DURATION);
+        gen.writeNumber(film.getDuration());
+        gen.writeFieldName(LIKES_COUNT);
+        gen.writeNumber(film.getLikesCount());
+        if (film.getLiked() != null) {
+            gen.writeFieldName(LIKED);
+            gen.writeBoolean(film.getLiked());
+        }
+        gen.writeFieldName(VERSION);
+        JsonValues.writeInteger(film.getVersion(), gen);
+        gen.writeEndObject();
+    }
+
+    private static void writeGenres(List<Genre> genres, JsonGenerator gen) throws IOException {
+        if (genres == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(genres, genres.size());
+        for (int i = 0; i < genres.size(); i++) {
+            GenreSerializer.write(genres.get(i), gen);
+        }
+        gen.writeEndArray();
+    }
+}
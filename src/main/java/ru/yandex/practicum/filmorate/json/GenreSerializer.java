@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.io.IOException;
+
+public class GenreSerializer extends StdSerializer<Genre> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+
+    public GenreSerializer() {
+        super(Genre.class);
+    }
+
+    @Override
+    public void serialize(Genre genre, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        write(genre, gen);
+    }
+
+    static void write(Genre genre, JsonGenerator gen) throws IOException {
+        if (genre == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(genre);
+        gen.writeFieldName(ID);
+        gen.writeNumber(genre.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(genre.getName());
+        gen.writeEndObject();
+    }
+}
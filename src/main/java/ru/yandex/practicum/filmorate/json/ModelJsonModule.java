@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+@Component
+public class ModelJsonModule extends SimpleModule {
+    public ModelJsonModule() {
+        super("filmorate-model");
+        addSerializer(Film.class, new FilmSerializer());
+        addSerializer(User.class, new UserSerializer());
+        addSerializer(Genre.class, new GenreSerializer());
+        addSerializer(Mpa.class, new MpaSerializer());
+    }
+}
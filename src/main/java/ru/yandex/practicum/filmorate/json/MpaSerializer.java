@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.io.IOException;
+
+public class MpaSerializer extends StdSerializer<Mpa> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+
+    public MpaSerializer() {
+        super(Mpa.class);
+    }
+
+    @Override
+    public void serialize(Mpa mpa, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        write(mpa, gen);
+    }
+
+    static void write(Mpa mpa, JsonGenerator gen) throws IOException {
+        if (mpa == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(mpa);
+        gen.writeFieldName(ID);
+        gen.writeNumber(mpa.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(mpa.getName());
+        gen.writeEndObject();
+    }
+}
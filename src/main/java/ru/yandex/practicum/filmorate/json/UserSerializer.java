@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+
+public class UserSerializer extends StdSerializer<User> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString LOGIN = new SerializedString("login");
+    private static final SerializableString BIRTHDAY = new SerializedString("birthday");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public UserSerializer() {
+        super(User.class);
+    }
+
+    @Override
+    public void serialize(User user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(user);
+        gen.writeFieldName(ID);
+        gen.writeNumber(user.getId());
+        gen.writeFieldName(NAME);
+        gen.writeString(user.getName());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(user.getEmail());
+        gen.writeFieldName(LOGIN);
+        gen.writeString(user.getLogin());
+        gen.writeFieldName(BIRTHDAY);
+        JsonValues.writeDate(user.getBirthday(), gen);
+        gen.writeFieldName(VERSION);
+        JsonValues.writeInteger(user.getVersion(), gen);
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class Change {
+    private long seq;
+    private Entity entity;
+    private Operation operation;
+    private int entityId;
+    private Integer relatedId;
+    private LocalDateTime createdAt;
+
+    public enum Entity {
+        FILM,
+        LIKE,
+        FRIENDSHIP
+    }
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
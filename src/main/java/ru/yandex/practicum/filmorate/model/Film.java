@@ -1,7 +1,9 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
@@ -11,7 +13,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class Film {
     private int id;
     private List<Genre> genres;
@@ -30,4 +32,14 @@ public class Film {
 
     @Positive(message = "field duration should be positive")
     private int duration;
+
+    @EqualsAndHashCode.Exclude
+    private int likesCount;
+
+    @EqualsAndHashCode.Exclude
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean liked;
+
+    @EqualsAndHashCode.Exclude
+    private Integer version;
 }
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+public class FilmFilter {
+    private List<Integer> genres;
+    private List<Integer> mpa;
+    private LocalDate releasedAfter;
+    private Integer minDuration;
+    private String sort;
+
+    public boolean isEmpty() {
+        return (genres == null || genres.isEmpty())
+                && (mpa == null || mpa.isEmpty())
+                && releasedAfter == null
+                && minDuration == null
+                && sort == null;
+    }
+}
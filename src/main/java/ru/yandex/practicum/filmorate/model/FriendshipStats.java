@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SortedMap;
+
+@Data
+@Builder
+public class FriendshipStats {
+    private int usersCount;
+    private int friendshipsCount;
+    private int mutualPairsCount;
+    private double reciprocity;
+    private int componentsCount;
+    private int largestComponentSize;
+    private SortedMap<Integer, Integer> degreeDistribution;
+    private List<Influencer> topInfluencers;
+    private LocalDateTime computedAt;
+    private long computeMillis;
+
+    @Data
+    @Builder
+    public static class Influencer {
+        private int userId;
+        private int followers;
+        private int friends;
+    }
+}
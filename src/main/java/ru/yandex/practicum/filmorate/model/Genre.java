@@ -2,12 +2,12 @@ package ru.yandex.practicum.filmorate.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Value;
 
-@Data
+@Value
 @AllArgsConstructor
 @Builder
 public class Genre {
-    private int id;
-    private String name;
+    private final int id;
+    private final String name;
 }
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.model;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
@@ -11,7 +12,7 @@ import javax.validation.constraints.Pattern;
 import java.time.LocalDate;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class User {
     private int id;
     private String name;
@@ -27,4 +28,7 @@ public class User {
     @Past(message = "birthday can't be in the future")
     @NotNull(message = "field birthday should not be empty")
     private LocalDate birthday;
+
+    @EqualsAndHashCode.Exclude
+    private Integer version;
 }
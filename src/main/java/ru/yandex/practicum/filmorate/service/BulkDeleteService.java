@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BulkDeleteJob;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class BulkDeleteService implements DisposableBean {
+    private static final int MAX_IDS_COUNT = 100_000;
+    private static final int MAX_KEPT_JOBS = 100;
+    private final UserService userService;
+    private final FilmService filmService;
+    private final int chunkSize;
+    private final int batchSize;
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, BulkDeleteJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BulkDeleteJob> eldest) {
+            return size() > MAX_KEPT_JOBS;
+        }
+    };
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BulkDeleteService(UserService userService, FilmService filmService,
+                             @Value("${filmorate.bulk-delete.chunk-size:500}") int chunkSize,
+                             @Value("${filmorate.bulk-delete.batch-size:5000}") int batchSize) {
+        this.userService = userService;
+        this.filmService = filmService;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public BulkDeleteJob deleteUsers(List<Integer> ids) {
+        return submit("USER", ids, chunk -> userService.deleteUsers(chunk, batchSize));
+    }
+
+    public BulkDeleteJob deleteFilms(List<Integer> ids) {
+        return submit("FILM", ids, chunk -> filmService.deleteFilms(chunk, batchSize));
+    }
+
+    public BulkDeleteJob getJob(long id) {
+        synchronized (jobs) {
+            BulkDeleteJob job = jobs.get(id);
+
+            if (job == null) {
+                throw new NotFoundException(String.format("Bulk delete job %d is not found", id));
+            }
+            return job;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private BulkDeleteJob submit(String entity, List<Integer> ids, ToIntFunction<List<Integer>> deleteChunk) {
+        if (ids.isEmpty() || ids.size() > MAX_IDS_COUNT) {
+            throw new ValidationException(String.format("Between 1 and %d ids can be deleted", MAX_IDS_COUNT));
+        }
+
+        List<Integer> distinctIds = ids.stream().distinct().sorted().collect(Collectors.toList());
+        BulkDeleteJob job = BulkDeleteJob.builder()
+                .id(jobIds.incrementAndGet())
+                .entity(entity)
+                .requested(distinctIds.size())
+                .status(BulkDeleteJob.Status.QUEUED)
+                .build();
+
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        executor.execute(() -> run(job, distinctIds, deleteChunk));
+        log.debug("Bulk delete job {} of {} {} ids queued", job.getId(), distinctIds.size(), entity);
+        return job;
+    }
+
+    private void run(BulkDeleteJob job, List<Integer> ids, ToIntFunction<List<Integer>> deleteChunk) {
+        job.setStartedAt(LocalDateTime.now());
+        job.setStatus(BulkDeleteJob.Status.RUNNING);
+
+        try {
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+
+                job.setDeleted(job.getDeleted() + deleteChunk.applyAsInt(chunk));
+                job.setProcessed(from + chunk.size());
+            }
+            job.setStatus(BulkDeleteJob.Status.DONE);
+        } catch (RuntimeException e) {
+            log.warn("Bulk delete job {} failed: {}", job.getId(), e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(BulkDeleteJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+}
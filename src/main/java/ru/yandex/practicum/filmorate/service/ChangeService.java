@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.exception.GoneException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Change;
+import ru.yandex.practicum.filmorate.storage.ChangeStorage;
+import ru.yandex.practicum.filmorate.util.SseFanout;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+public class ChangeService implements DisposableBean {
+    private static final int MAX_LIMIT = 1000;
+    private static final int SSE_BATCH_SIZE = 100;
+    private static final int PRUNE_CHUNK_SIZE = 10_000;
+    private final ChangeStorage changeStorage;
+    private final Duration retention;
+    private final long maxPollTimeoutMillis;
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notifyScheduled = new AtomicBoolean();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "changes-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SseFanout fanout;
+
+    public ChangeService(ChangeStorage changeStorage,
+                         @Value("${filmorate.changes.retention:PT24H}") Duration retention,
+                         @Value("${filmorate.changes.max-poll-timeout-millis:60000}") long maxPollTimeoutMillis,
+                         @Value("${filmorate.changes.stream-timeout-millis:1800000}") long streamTimeoutMillis,
+                         @Value("${filmorate.changes.stream-slow-consumer-millis:5000}") long slowConsumerMillis,
+                         @Value("${filmorate.changes.stream-sender-threads:4}") int senderThreads) {
+        this.changeStorage = changeStorage;
+        this.retention = retention;
+        this.maxPollTimeoutMillis = maxPollTimeoutMillis;
+        this.fanout = new SseFanout("changes", senderThreads, streamTimeoutMillis, slowConsumerMillis);
+        changeStorage.subscribe(this::scheduleNotify);
+    }
+
+    public List<Change> getChanges(long since, int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException(String.format("Changes limit should be between 1 and %d", MAX_LIMIT));
+        }
+        long prunedUpTo = changeStorage.getPrunedUpTo();
+
+        if (since < prunedUpTo) {
+            throw new GoneException(String.format(
+                    "Changes up to %d are pruned, full resync is required", prunedUpTo));
+        }
+
+        return changeStorage.getChanges(since, limit);
+    }
+
+    public DeferredResult<List<Change>> pollChanges(long since, int limit, long timeoutMillis) {
+        List<Change> changes = getChanges(since, limit);
+        long timeout = Math.min(timeoutMillis, maxPollTimeoutMillis);
+        DeferredResult<List<Change>> result = new DeferredResult<>(timeout, new ArrayList<Change>());
+
+        if (!changes.isEmpty() || timeout <= 0) {
+            result.setResult(changes);
+            return result;
+        }
+
+        Waiter waiter = new Waiter(since, limit, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        scheduleNotify();
+        return result;
+    }
+
+    public SseEmitter streamChanges(long since) {
+        getChanges(since, 1);
+
+        SseEmitter emitter = fanout.subscribe(new ChangesSender(since)).getEmitter();
+        scheduleNotify();
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.changes.prune-interval-millis:60000}")
+    public void pruneChanges() {
+        long pruned = changeStorage.pruneChanges(LocalDateTime.now().minus(retention), PRUNE_CHUNK_SIZE);
+        log.debug("Changes up to {} are pruned", pruned);
+    }
+
+    @Override
+    public void destroy() {
+        notifier.shutdownNow();
+        fanout.shutdown();
+    }
+
+    private void scheduleNotify() {
+        if (notifyScheduled.compareAndSet(false, true)) {
+            notifier.execute(this::notifyListeners);
+        }
+    }
+
+    private void notifyListeners() {
+        notifyScheduled.set(false);
+        Map<Long, List<Change>> fetched = new HashMap<>();
+
+        for (Waiter waiter : waiters) {
+            List<Change> changes = fetched.computeIfAbsent(waiter.since,
+                    since -> changeStorage.getChanges(since, MAX_LIMIT));
+
+            if (!changes.isEmpty()) {
+                waiter.result.setResult(changes.subList(0, Math.min(waiter.limit, changes.size())));
+            }
+        }
+
+        fanout.offerAll();
+    }
+
+    private static class Waiter {
+        private final long since;
+        private final int limit;
+        private final DeferredResult<List<Change>> result;
+
+        private Waiter(long since, int limit, DeferredResult<List<Change>> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+
+    private class ChangesSender implements SseFanout.Sender {
+        private long cursor;
+
+        private ChangesSender(long cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public void sendPending(SseFanout.Subscription subscription) throws IOException {
+            List<Change> changes;
+
+            do {
+                changes = changeStorage.getChanges(cursor, SSE_BATCH_SIZE);
+                for (Change change : changes) {
+                    subscription.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSeq()))
+                            .name("change")
+                            .data(change));
+                    cursor = change.getSeq();
+                }
+            } while (changes.size() == SSE_BATCH_SIZE);
+        }
+    }
+}
@@ -3,117 +3,243 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmCatalogIndex;
+import ru.yandex.practicum.filmorate.index.FilmGenresIndex;
+import ru.yandex.practicum.filmorate.index.FilmLikesCounter;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.invalidation.CacheInvalidator;
+import ru.yandex.practicum.filmorate.invalidation.EntityChange;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
 @Service
 @Slf4j
 public class FilmService {
     private final FilmStorage filmStorage;
     private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
     private final UserStorage userStorage;
+    private final FilmSearchIndex filmSearchIndex;
+    private final FilmLikesCounter filmLikesCounter;
+    private final FilmCatalogIndex filmCatalogIndex;
+    private final CacheInvalidator cacheInvalidator;
+    private final PopularFilmsBroadcaster popularFilmsBroadcaster;
     private static final LocalDate FIRST_FILM_RELEASE_DATE = (LocalDate.of(1895, 12, 28));
+    private static final int MAX_SEARCH_COUNT = 100;
+    private static final int MAX_IDS_COUNT = 5000;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Autowired
-    public FilmService(FilmStorage filmStorage, GenreStorage genreStorage, UserStorage userStorage) {
+    public FilmService(FilmStorage filmStorage, GenreStorage genreStorage, MpaStorage mpaStorage,
+                       UserStorage userStorage, FilmSearchIndex filmSearchIndex,
+                       FilmLikesCounter filmLikesCounter, FilmCatalogIndex filmCatalogIndex,
+                       CacheInvalidator cacheInvalidator, PopularFilmsBroadcaster popularFilmsBroadcaster) {
         this.filmStorage = filmStorage;
         this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
         this.userStorage = userStorage;
+        this.filmSearchIndex = filmSearchIndex;
+        this.filmLikesCounter = filmLikesCounter;
+        this.filmCatalogIndex = filmCatalogIndex;
+        this.cacheInvalidator = cacheInvalidator;
+        this.popularFilmsBroadcaster = popularFilmsBroadcaster;
+        cacheInvalidator.subscribeRefreshes(this::applyRemoteChange);
+    }
+
+    public void buildIndexes() {
+        List<Film> films = onPrimary(this::getFilms);
+
+        filmSearchIndex.rebuild(films);
+        filmCatalogIndex.rebuild(films);
+        filmLikesCounter.reset(onPrimary(filmStorage::getLikesCounts));
+        log.debug("Film indexes and likes counters are built");
     }
 
     public List<Film> getFilms() {
-        Map<Integer, List<Genre>> filmsGenres = genreStorage.getAllFilmsGenres();
+        FilmGenresIndex filmsGenres = genreStorage.getAllFilmsGenres();
+        List<Film> films = filmStorage.getFilms();
 
-        return filmStorage.getFilms().stream()
-                .map(film -> {
-                    film.setGenres(new ArrayList<>());
+        films.forEach(film -> {
+            film.setGenres(filmsGenres.get(film.getId()));
+            film.setLikesCount(filmLikesCounter.get(film.getId()));
+        });
+        return films;
+    }
 
-                    if (filmsGenres.containsKey(film.getId())) {
-                        film.setGenres(filmsGenres.get(film.getId()));
-                    }
-                    return film;
-                })
-                .collect(Collectors.toList());
+    public List<Film> getFilms(FilmFilter filter, Integer likedBy) {
+        if (filter.isEmpty()) {
+            return markLiked(getFilms(), likedBy);
+        }
+
+        return markLiked(getFilmsInOrder(Arrays.stream(filmCatalogIndex.query(filter))
+                .boxed()
+                .collect(Collectors.toList())), likedBy);
+    }
+
+    public List<Film> getFilmsByIds(List<Integer> ids, Integer likedBy) {
+        if (ids.size() > MAX_IDS_COUNT) {
+            throw new ValidationException(String.format("No more than %d ids can be requested", MAX_IDS_COUNT));
+        }
+
+        return markLiked(getFilmsInOrder(ids.stream().distinct().collect(Collectors.toList())), likedBy);
     }
 
-    public List<Film> getMostPopularFilms(int count) {
+    public List<Film> getMostPopularFilms(int count, Integer likedBy) {
         List<Film> films = filmStorage.getMostPopularFilms(count);
         Map<Integer, List<Genre>> genres = genreStorage.getGenresByFilmsIds(
                 films.stream().map(Film::getId).collect(Collectors.toList()));
 
-        return films.stream()
-                .map(film -> {
-                    film.setGenres(new ArrayList<>());
+        films.forEach(film -> {
+            film.setGenres(genres.getOrDefault(film.getId(), Collections.emptyList()));
+            film.setLikesCount(filmLikesCounter.get(film.getId()));
+        });
+        return markLiked(films, likedBy);
+    }
 
-                    if (genres.containsKey(film.getId())) {
-                        film.setGenres(genres.get(film.getId()));
-                    }
-                    return film;
-                })
-                .collect(Collectors.toList());
+    public SseEmitter streamMostPopularFilms(int count) {
+        if (count <= 0 || count > PopularFilmsBroadcaster.MAX_COUNT) {
+            throw new ValidationException(
+                    String.format("Chart count should be between 1 and %d", PopularFilmsBroadcaster.MAX_COUNT));
+        }
+
+        return popularFilmsBroadcaster.subscribe(count);
     }
 
-    public Film getFilmById(int id) {
-        if (!filmStorage.filmExists(id)) {
-            throw new NotFoundException(String.format("Film %d is not found", id));
+    public List<Film> searchFilms(String query, int count, boolean sortByLikes, Integer likedBy) {
+        if (count <= 0 || count > MAX_SEARCH_COUNT) {
+            throw new ValidationException(
+                    String.format("Search count should be between 1 and %d", MAX_SEARCH_COUNT));
         }
 
-        Film film = filmStorage.getFilmById(id);
+        int[] found = filmSearchIndex.search(query);
+        List<Integer> ids;
+
+        if (sortByLikes) {
+            ids = Arrays.stream(found).boxed()
+                    .sorted(Comparator.comparingInt(filmLikesCounter::get).reversed())
+                    .limit(count)
+                    .collect(Collectors.toList());
+        } else {
+            ids = Arrays.stream(found).limit(count).boxed().collect(Collectors.toList());
+        }
+
+        return markLiked(getFilmsInOrder(ids), likedBy);
+    }
+
+    public List<Film> getLikedFilms(int userId, int afterFilmId, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException(String.format("Page limit should be between 1 and %d", MAX_PAGE_SIZE));
+        }
+        if (!userStorage.userExists(userId)) {
+            throw new NotFoundException(String.format("User %d is not found", userId));
+        }
+
+        List<Film> films = getFilmsInOrder(filmStorage.getLikedFilmsIds(userId, afterFilmId, limit));
+
+        films.forEach(film -> film.setLiked(true));
+        return films;
+    }
+
+    public Film getFilmById(int id, Integer likedBy) {
+        Film film = filmStorage.getFilmById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Film %d is not found", id)));
         film.setGenres(genreStorage.getGenresByFilmId(id));
+        film.setLikesCount(filmLikesCounter.get(id));
 
-        return film;
+        return markLiked(List.of(film), likedBy).get(0);
     }
 
+    @Transactional
     public Film addFilm(Film film) {
         validateReleaseDate(film);
+        film.setMpa(getMpa(film.getMpa().getId()));
 
         Film filmReturned = filmStorage.addFilm(film);
-
-        genreStorage.updateFilmGenres(film);
-
-        filmReturned.setGenres(genreStorage.getGenresByFilmId(filmReturned.getId()));
+        genreStorage.updateFilmGenres(filmReturned);
+        filmReturned.setLikesCount(filmLikesCounter.get(filmReturned.getId()));
+        afterCommit(() -> indexFilm(filmReturned));
+        cacheInvalidator.publish(EntityChange.Type.FILM_UPDATED, filmReturned.getId(), filmReturned.getVersion());
 
         log.debug("POST request handled: new film added");
         return filmReturned;
     }
 
+    @Transactional
     public Film updateFilm(Film film) {
         validateReleaseDate(film);
+        film.setMpa(getMpa(film.getMpa().getId()));
 
-        if (!filmStorage.filmExists(film.getId())) {
-            throw new NotFoundException(String.format("Film %d is not found", film.getId()));
+        boolean genresChanged = genreStorage.updateFilmGenres(film);
+        film.setLikesCount(filmLikesCounter.get(film.getId()));
+        if (!filmStorage.updateFilm(film, genresChanged)) {
+            log.debug(String.format("PUT request handled: film %d not changed", film.getId()));
+            return film;
         }
 
-        Film filmReturned = filmStorage.updateFilm(film);
-
-        genreStorage.updateFilmGenres(film);
-
-        filmReturned.setGenres(genreStorage.getGenresByFilmId(filmReturned.getId()));
+        afterCommit(() -> indexFilm(film));
+        cacheInvalidator.publish(EntityChange.Type.FILM_UPDATED, film.getId(), film.getVersion());
 
         log.debug(String.format("PUT request handled: film %d updated", film.getId()));
-        return filmReturned;
+        return film;
     }
 
+    @Transactional
     public void deleteFilm(int id) {
         if (!filmStorage.filmExists(id)) {
             throw new NotFoundException(String.format("Film %d is not found", id));
         }
 
+        genreStorage.deleteFilmGenres(id);
         filmStorage.deleteFilm(id);
+        afterCommit(() -> {
+            filmSearchIndex.remove(id);
+            filmCatalogIndex.remove(id);
+            filmLikesCounter.remove(id);
+        });
+        cacheInvalidator.publish(EntityChange.Type.FILM_DELETED, id, 0);
         log.debug(String.format("DELETE request handled: film %d deleted", id));
     }
 
+    @Transactional
+    public int deleteFilms(List<Integer> ids, int batchSize) {
+        genreStorage.deleteFilmsGenres(ids, batchSize);
+        List<Integer> deleted = filmStorage.deleteFilms(ids, batchSize);
+
+        afterCommit(() -> deleted.forEach(id -> {
+            filmSearchIndex.remove(id);
+            filmCatalogIndex.remove(id);
+            filmLikesCounter.remove(id);
+        }));
+        deleted.forEach(id -> cacheInvalidator.publish(EntityChange.Type.FILM_DELETED, id, 0));
+        log.debug(String.format("Bulk DELETE handled: %d films deleted", deleted.size()));
+        return deleted.size();
+    }
+
     public void addLike(int filmId, int userId) {
         if (!filmStorage.filmExists(filmId)) {
             throw new NotFoundException(String.format("Film %d is not found", filmId));
@@ -123,6 +249,8 @@ public class FilmService {
         }
 
         filmStorage.addLike(filmId, userId);
+        filmLikesCounter.increment(filmId);
+        cacheInvalidator.publish(EntityChange.Type.FILM_LIKES_CHANGED, filmId, 0);
         log.debug(String.format("PUT request handled: like from user %d added to film %d", userId, filmId));
     }
 
@@ -134,10 +262,82 @@ public class FilmService {
             throw new NotFoundException(String.format("User %d is not found", userId));
         }
 
-        filmStorage.deleteLike(filmId, userId);
+        if (filmStorage.deleteLike(filmId, userId)) {
+            filmLikesCounter.decrement(filmId);
+            cacheInvalidator.publish(EntityChange.Type.FILM_LIKES_CHANGED, filmId, 0);
+        }
         log.debug(String.format("DELETE request handled: like from user %d deleted from film %d", userId, filmId));
     }
 
+    private List<Film> getFilmsInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Integer, Film> films = filmStorage.getFilmsByIds(ids).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        Map<Integer, List<Genre>> genres = genreStorage.getGenresByFilmsIds(ids);
+
+        return ids.stream()
+                .filter(films::containsKey)
+                .map(id -> {
+                    Film film = films.get(id);
+                    film.setGenres(genres.getOrDefault(id, Collections.emptyList()));
+                    film.setLikesCount(filmLikesCounter.get(id));
+                    return film;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<Film> markLiked(List<Film> films, Integer userId) {
+        if (userId == null) {
+            return films;
+        }
+        if (!userStorage.userExists(userId)) {
+            throw new NotFoundException(String.format("User %d is not found", userId));
+        }
+
+        Set<Integer> liked = new HashSet<>(filmStorage.getLikedFilmsIds(userId,
+                films.stream().map(Film::getId).collect(Collectors.toList())));
+        films.forEach(film -> film.setLiked(liked.contains(film.getId())));
+        return films;
+    }
+
+    private void applyRemoteChange(EntityChange change) {
+        int id = change.getId();
+
+        switch (change.getType()) {
+            case FILM_UPDATED:
+                genreStorage.reloadFilmGenres(id);
+                onPrimary(() -> filmStorage.getFilmById(id)).ifPresent(film -> {
+                    film.setGenres(genreStorage.getGenresByFilmId(id));
+                    indexFilm(film);
+                });
+                break;
+            case FILM_DELETED:
+                genreStorage.reloadFilmGenres(id);
+                filmSearchIndex.remove(id);
+                filmCatalogIndex.remove(id);
+                filmLikesCounter.remove(id);
+                break;
+            case FILM_LIKES_CHANGED:
+                filmLikesCounter.set(id, onPrimary(() -> filmStorage.getLikesCount(id)));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Mpa getMpa(int mpaId) {
+        return mpaStorage.getMpaById(mpaId)
+                .orElseThrow(() -> new NotFoundException(String.format("Mpa %d is not found", mpaId)));
+    }
+
+    private void indexFilm(Film film) {
+        filmSearchIndex.index(film);
+        filmCatalogIndex.index(film);
+    }
+
     private void validateReleaseDate(Film film) {
         if (film.getReleaseDate().isBefore(FIRST_FILM_RELEASE_DATE)) {
             throw new ValidationException("Validation failed: Incorrect release date");
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraph;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraphAnalyzer;
+import ru.yandex.practicum.filmorate.model.FriendshipStats;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+
+@Service
+@Slf4j
+public class FriendshipAnalyticsService implements DisposableBean {
+    private final UserStorage userStorage;
+    private final int topCount;
+    private final ForkJoinPool pool;
+    private final FriendshipGraphAnalyzer analyzer;
+    private volatile FriendshipStats stats;
+
+    public FriendshipAnalyticsService(UserStorage userStorage,
+                                      @Value("${filmorate.analytics.friendship.top-count:10}") int topCount,
+                                      @Value("${filmorate.analytics.friendship.parallelism:0}") int parallelism) {
+        this.userStorage = userStorage;
+        this.topCount = topCount;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.analyzer = new FriendshipGraphAnalyzer(pool);
+    }
+
+    public FriendshipStats getStats() {
+        FriendshipStats current = stats;
+
+        if (current == null) {
+            throw new NotFoundException("Friendship analytics has not been computed yet");
+        }
+        return current;
+    }
+
+    @Scheduled(initialDelayString = "${filmorate.analytics.friendship.interval-millis:3600000}",
+            fixedDelayString = "${filmorate.analytics.friendship.interval-millis:3600000}")
+    public synchronized FriendshipStats computeStats() {
+        long started = System.currentTimeMillis();
+        FriendshipGraph graph = userStorage.getFriendshipGraph();
+        FriendshipStats computed = analyzer.analyze(graph, topCount);
+
+        computed.setComputedAt(LocalDateTime.now());
+        computed.setComputeMillis(System.currentTimeMillis() - started);
+        stats = computed;
+        log.debug("Friendship analytics computed in {} ms", computed.getComputeMillis());
+        return computed;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
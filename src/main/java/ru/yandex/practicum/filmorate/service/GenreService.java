@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
 
@@ -21,6 +22,7 @@ public class GenreService {
     }
 
     public Genre getGenreById(int id) {
-        return genreStorage.getGenreById(id);
+        return genreStorage.getGenreById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Genre %d is not found", id)));
     }
 }
@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
@@ -21,6 +22,7 @@ public class MpaService {
     }
 
     public Mpa getMpaById(int id) {
-        return mpaStorage.getMpaById(id);
+        return mpaStorage.getMpaById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Mpa %d is not found", id)));
     }
 }
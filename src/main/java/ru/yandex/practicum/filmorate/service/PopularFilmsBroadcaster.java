@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.index.FilmLikesCounter;
+import ru.yandex.practicum.filmorate.model.ChartUpdate;
+import ru.yandex.practicum.filmorate.model.RankChange;
+import ru.yandex.practicum.filmorate.util.SseFanout;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class PopularFilmsBroadcaster implements DisposableBean {
+    public static final int MAX_COUNT = 100;
+    private final FilmLikesCounter filmLikesCounter;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "popular-chart-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final SseFanout fanout;
+    private volatile FilmLikesCounter.Ranking ranking = FilmLikesCounter.Ranking.EMPTY;
+    private long rankedModCount = -1;
+
+    public PopularFilmsBroadcaster(FilmLikesCounter filmLikesCounter,
+                                   @Value("${filmorate.popular.stream.tick-millis:250}") long tickMillis,
+                                   @Value("${filmorate.popular.stream.slow-consumer-millis:5000}")
+                                   long slowConsumerMillis,
+                                   @Value("${filmorate.popular.stream.timeout-millis:1800000}")
+                                   long streamTimeoutMillis,
+                                   @Value("${filmorate.popular.stream.sender-threads:4}") int senderThreads) {
+        this.filmLikesCounter = filmLikesCounter;
+        this.fanout = new SseFanout("popular-chart", senderThreads, streamTimeoutMillis, slowConsumerMillis);
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(int count) {
+        SseFanout.Subscription subscription = fanout.subscribe(new ChartSender(count));
+
+        ticker.execute(() -> {
+            refreshRanking();
+            subscription.offer();
+        });
+        return subscription.getEmitter();
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+        fanout.shutdown();
+    }
+
+    private void tick() {
+        try {
+            if (!fanout.isEmpty() && refreshRanking()) {
+                fanout.offerAll();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Popular chart update failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean refreshRanking() {
+        long modCount = filmLikesCounter.getModCount();
+
+        if (modCount == rankedModCount) {
+            return false;
+        }
+        rankedModCount = modCount;
+        // Unlike GET /films/popular, the chart holds liked films only: the zero-like tail has no stable order.
+        ranking = filmLikesCounter.top(MAX_COUNT);
+        return true;
+    }
+
+    private class ChartSender implements SseFanout.Sender {
+        private final int count;
+        private FilmLikesCounter.Ranking sent = FilmLikesCounter.Ranking.EMPTY;
+        private boolean initialized;
+
+        private ChartSender(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void sendPending(SseFanout.Subscription subscription) throws IOException {
+            FilmLikesCounter.Ranking current = ranking;
+            int size = Math.min(count, current.size());
+            List<RankChange> changes = new ArrayList<>();
+
+            for (int rank = 0; rank < size; rank++) {
+                if (rank >= sent.size()
+                        || sent.getFilmId(rank) != current.getFilmId(rank)
+                        || sent.getLikes(rank) != current.getLikes(rank)) {
+                    changes.add(new RankChange(rank + 1, current.getFilmId(rank), current.getLikes(rank)));
+                }
+            }
+
+            if (initialized && changes.isEmpty() && size == Math.min(count, sent.size())) {
+                sent = current;
+                return;
+            }
+
+            subscription.send(SseEmitter.event()
+                    .name("rank")
+                    .data(new ChartUpdate(size, changes)));
+            sent = current;
+            initialized = true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+
+@Component
+@Slf4j
+public class StartupWarmup {
+    private static final int PRELOAD_THREADS = 3;
+    private static final int WARMUP_POPULAR_COUNT = 10;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final GenreService genreService;
+    private final MpaService mpaService;
+    private final GenreStorage genreStorage;
+    private final MpaStorage mpaStorage;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int warmupIterations;
+    private final long warmupMillis;
+
+    public StartupWarmup(FilmService filmService, UserService userService, GenreService genreService,
+                         MpaService mpaService, GenreStorage genreStorage, MpaStorage mpaStorage,
+                         ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${filmorate.startup.warmup-iterations:200}") int warmupIterations,
+                         @Value("${filmorate.startup.warmup-millis:5000}") long warmupMillis) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.genreService = genreService;
+        this.mpaService = mpaService;
+        this.genreStorage = genreStorage;
+        this.mpaStorage = mpaStorage;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.warmupIterations = warmupIterations;
+        this.warmupMillis = warmupMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        ExecutorService executor = newExecutor();
+
+        try {
+            phases.put("dictionaries", timed("dictionaries", () -> runInParallel(executor,
+                    () -> onPrimary(mpaStorage::getAllMpa),
+                    () -> onPrimary(genreStorage::getGenres),
+                    () -> onPrimary(genreStorage::getAllFilmsGenres))));
+            phases.put("indexes", timed("indexes", () -> runInParallel(executor,
+                    filmService::buildIndexes,
+                    userService::buildFriendshipGraph)));
+        } finally {
+            executor.shutdownNow();
+        }
+        phases.put("warmup", timed("warmup", this::exerciseHotPaths));
+
+        log.info("Startup phases: context {} ms, {}", event.getTimeTaken() == null ? -1
+                : event.getTimeTaken().toMillis(), phases.entrySet().stream()
+                .map(phase -> String.format("%s %d ms", phase.getKey(), phase.getValue()))
+                .collect(Collectors.joining(", ")));
+    }
+
+    private void exerciseHotPaths() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+        int iterations = 0;
+
+        try {
+            while (iterations < warmupIterations && System.nanoTime() < deadline) {
+                List<Film> popular = filmService.getMostPopularFilms(WARMUP_POPULAR_COUNT, null);
+
+                objectMapper.writeValueAsBytes(popular);
+                for (Film film : popular) {
+                    objectMapper.writeValueAsBytes(filmService.getFilmById(film.getId(), null));
+                }
+                objectMapper.writeValueAsBytes(genreService.getGenres());
+                objectMapper.writeValueAsBytes(mpaService.getAllMpa());
+                iterations++;
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Warm-up stopped after {} iterations: {}", iterations, e.getMessage());
+        }
+        log.debug("Warm-up finished after {} iterations", iterations);
+    }
+
+    private long timed(String phase, Runnable action) {
+        long started = System.nanoTime();
+
+        action.run();
+        long elapsed = System.nanoTime() - started;
+        meterRegistry.timer("filmorate.startup.phase", "phase", phase).record(Duration.ofNanos(elapsed));
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    private static void runInParallel(ExecutorService executor, Runnable... tasks) {
+        List<CompletableFuture<Void>> futures = Arrays.stream(tasks)
+                .map(task -> CompletableFuture.runAsync(task, executor))
+                .collect(Collectors.toList());
+        try {
+            futures.forEach(CompletableFuture::join);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        AtomicInteger threads = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(PRELOAD_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "startup-preload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -3,20 +3,52 @@ package ru.yandex.practicum.filmorate.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraphIndex;
+import ru.yandex.practicum.filmorate.index.FilmLikesCounter;
+import ru.yandex.practicum.filmorate.invalidation.CacheInvalidator;
+import ru.yandex.practicum.filmorate.invalidation.EntityChange;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
 
 @Service
 @Slf4j
 public class UserService {
     private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final FilmLikesCounter filmLikesCounter;
+    private final CacheInvalidator cacheInvalidator;
+    private final FriendshipGraphIndex friendshipGraphIndex;
+    private static final int MAX_IDS_COUNT = 5000;
+    private static final int MAX_PATH_HOPS = 12;
+    private static final int LIKES_DELETE_BATCH_SIZE = 5000;
 
     @Autowired
-    public UserService(UserStorage userStorage) {
+    public UserService(UserStorage userStorage, FilmStorage filmStorage, FilmLikesCounter filmLikesCounter,
+                       CacheInvalidator cacheInvalidator, FriendshipGraphIndex friendshipGraphIndex) {
         this.userStorage = userStorage;
+        this.filmStorage = filmStorage;
+        this.filmLikesCounter = filmLikesCounter;
+        this.cacheInvalidator = cacheInvalidator;
+        this.friendshipGraphIndex = friendshipGraphIndex;
+        cacheInvalidator.subscribeRefreshes(this::applyRemoteChange);
+    }
+
+    public void buildFriendshipGraph() {
+        friendshipGraphIndex.rebuild(onPrimary(userStorage::getFriendshipGraph));
+        log.debug("Friendship graph index is built");
     }
 
     public List<User> getUsers() {
@@ -24,11 +56,23 @@ public class UserService {
     }
 
     public User getUserById(int id) {
-        if (!userStorage.userExists(id)) {
-            throw new NotFoundException(String.format("User %d is not found", id));
+        return userStorage.getUserById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("User %d is not found", id)));
+    }
+
+    public List<User> getUsersByIds(List<Integer> ids) {
+        if (ids.size() > MAX_IDS_COUNT) {
+            throw new ValidationException(String.format("No more than %d ids can be requested", MAX_IDS_COUNT));
         }
 
-        return userStorage.getUserById(id);
+        List<Integer> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        Map<Integer, User> users = userStorage.getUsersByIds(distinctIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return distinctIds.stream()
+                .filter(users::containsKey)
+                .map(users::get)
+                .collect(Collectors.toList());
     }
 
     public User addUser(User user) {
@@ -36,32 +80,60 @@ public class UserService {
             user.setName(user.getLogin());
         }
 
+        User userReturned = userStorage.addUser(user);
+        cacheInvalidator.publish(EntityChange.Type.USER_UPDATED, userReturned.getId(), userReturned.getVersion());
+
         log.debug("POST request handled: new user added");
-        return userStorage.addUser(user);
+        return userReturned;
     }
 
+    @Transactional
     public User updateUser(User user) {
-        if (!userStorage.userExists(user.getId())) {
-            throw new NotFoundException(String.format("User %d is not found", user.getId()));
-        }
-
         if (user.getName() == null || user.getName().isBlank()) {
             user.setName(user.getLogin());
         }
 
+        User userReturned = userStorage.updateUser(user);
+        cacheInvalidator.publish(EntityChange.Type.USER_UPDATED, userReturned.getId(), userReturned.getVersion());
+
         log.debug(String.format("PUT request handled: user %d is updated", user.getId()));
-        return userStorage.updateUser(user);
+        return userReturned;
     }
 
+    @Transactional
     public void deleteUser(int id) {
         if (!userStorage.userExists(id)) {
             throw new NotFoundException(String.format("User %d is not found", id));
         }
 
+        List<Integer> likedFilmsIds = filmStorage.deleteLikesByUsers(List.of(id), LIKES_DELETE_BATCH_SIZE);
         userStorage.deleteUser(id);
+        afterCommit(() -> {
+            likedFilmsIds.forEach(filmLikesCounter::decrement);
+            friendshipGraphIndex.removeUser(id);
+        });
+        cacheInvalidator.publish(EntityChange.Type.USER_DELETED, id, 0);
+        likedFilmsIds.forEach(filmId -> cacheInvalidator.publish(EntityChange.Type.FILM_LIKES_CHANGED, filmId, 0));
         log.debug(String.format("DELETE request handled: user %d is deleted", id));
     }
 
+    @Transactional
+    public int deleteUsers(List<Integer> ids, int batchSize) {
+        List<Integer> likedFilmsIds = filmStorage.deleteLikesByUsers(ids, batchSize);
+        List<Integer> deleted = userStorage.deleteUsers(ids, batchSize);
+
+        afterCommit(() -> {
+            likedFilmsIds.forEach(filmLikesCounter::decrement);
+            deleted.forEach(friendshipGraphIndex::removeUser);
+        });
+        deleted.forEach(id -> cacheInvalidator.publish(EntityChange.Type.USER_DELETED, id, 0));
+        likedFilmsIds.stream()
+                .distinct()
+                .forEach(filmId -> cacheInvalidator.publish(EntityChange.Type.FILM_LIKES_CHANGED, filmId, 0));
+        log.debug(String.format("Bulk DELETE handled: %d users deleted", deleted.size()));
+        return deleted.size();
+    }
+
     public void addFriend(int userId, int friendId) {
         if (!userStorage.userExists(userId)) {
             throw new NotFoundException(String.format("User %d is not found", userId));
@@ -71,6 +143,8 @@ public class UserService {
         }
 
         userStorage.addFriend(userId, friendId);
+        afterCommit(() -> friendshipGraphIndex.addEdge(userId, friendId));
+        cacheInvalidator.publish(EntityChange.Type.FRIENDSHIP_CHANGED, userId, 0);
         log.debug(String.format("POST request handled: user %d is now friend of user %d", userId, friendId));
     }
 
@@ -83,6 +157,8 @@ public class UserService {
         }
 
         userStorage.deleteFriend(userId, friendId);
+        afterCommit(() -> friendshipGraphIndex.removeEdge(userId, friendId));
+        cacheInvalidator.publish(EntityChange.Type.FRIENDSHIP_CHANGED, userId, 0);
         log.debug(String.format("DELETE request handled: user %d is deleted from user %d friends", friendId, userId));
     }
 
@@ -104,4 +180,35 @@ public class UserService {
 
         return userStorage.getCommonFriends(userId, otherUserId);
     }
+
+    public List<User> getFriendshipPath(int userId, int otherUserId, int maxHops) {
+        if (maxHops <= 0 || maxHops > MAX_PATH_HOPS) {
+            throw new ValidationException(String.format("Path hops should be between 1 and %d", MAX_PATH_HOPS));
+        }
+        if (!userStorage.userExists(userId)) {
+            throw new NotFoundException(String.format("User %d is not found", userId));
+        }
+        if (!userStorage.userExists(otherUserId)) {
+            throw new NotFoundException(String.format("User %d is not found", otherUserId));
+        }
+
+        int[] path = friendshipGraphIndex.shortestPath(userId, otherUserId, maxHops);
+        return getUsersByIds(Arrays.stream(path).boxed().collect(Collectors.toList()));
+    }
+
+    private void applyRemoteChange(EntityChange change) {
+        switch (change.getType()) {
+            case FRIENDSHIP_CHANGED:
+                int[] friends = onPrimary(() -> userStorage.getUserFriends(change.getId())).stream()
+                        .mapToInt(User::getId)
+                        .toArray();
+                friendshipGraphIndex.replaceFriends(change.getId(), friends);
+                break;
+            case USER_DELETED:
+                friendshipGraphIndex.removeUser(change.getId());
+                break;
+            default:
+                break;
+        }
+    }
 }
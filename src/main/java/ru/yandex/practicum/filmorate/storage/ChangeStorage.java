@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Change;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ChangeStorage {
+    void append(Change.Entity entity, Change.Operation operation, int entityId, Integer relatedId);
+
+    List<Change> getChanges(long since, int limit);
+
+    long pruneChanges(LocalDateTime before, int chunkSize);
+
+    long getPrunedUpTo();
+
+    void subscribe(Runnable listener);
+}
@@ -3,23 +3,41 @@ package ru.yandex.practicum.filmorate.storage;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public interface FilmStorage {
     List<Film> getFilms();
 
     List<Film> getMostPopularFilms(int count);
 
-    Film getFilmById(int id);
+    Optional<Film> getFilmById(int id);
+
+    List<Film> getFilmsByIds(List<Integer> ids);
 
     Film addFilm(Film film);
 
-    Film updateFilm(Film film);
+    boolean updateFilm(Film film, boolean genresChanged);
 
     void deleteFilm(int id);
 
+    List<Integer> deleteFilms(List<Integer> ids, int batchSize);
+
+    List<Integer> deleteLikesByUsers(List<Integer> userIds, int batchSize);
+
     void addLike(int filmId, int userId);
 
-    void deleteLike(int filmId, int userId);
+    boolean deleteLike(int filmId, int userId);
 
     boolean filmExists(int id);
+
+    Map<Integer, Integer> getLikesCounts();
+
+    int getLikesCount(int filmId);
+
+    List<Integer> getLikedFilmsIds(int userId);
+
+    List<Integer> getLikedFilmsIds(int userId, int afterFilmId, int limit);
+
+    List<Integer> getLikedFilmsIds(int userId, List<Integer> filmIds);
 }
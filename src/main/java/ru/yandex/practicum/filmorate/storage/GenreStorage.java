@@ -1,23 +1,29 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.index.FilmGenresIndex;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface GenreStorage {
     List<Genre> getGenres();
 
-    Genre getGenreById(int id);
+    Optional<Genre> getGenreById(int id);
 
-    Map<Integer, List<Genre>> getAllFilmsGenres();
+    FilmGenresIndex getAllFilmsGenres();
 
     List<Genre> getGenresByFilmId(int filmId);
 
     Map<Integer, List<Genre>> getGenresByFilmsIds(List<Integer> filmsIds);
 
-    void updateFilmGenres(Film film);
+    boolean updateFilmGenres(Film film);
 
     void deleteFilmGenres(int filmId);
+
+    void deleteFilmsGenres(List<Integer> filmIds, int batchSize);
+
+    void reloadFilmGenres(int filmId);
 }
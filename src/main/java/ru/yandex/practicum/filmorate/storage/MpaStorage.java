@@ -3,9 +3,10 @@ package ru.yandex.practicum.filmorate.storage;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface MpaStorage {
     List<Mpa> getAllMpa();
 
-    Mpa getMpaById(int id);
+    Optional<Mpa> getMpaById(int id);
 }
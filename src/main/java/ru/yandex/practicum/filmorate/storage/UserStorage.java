@@ -1,13 +1,17 @@
 package ru.yandex.practicum.filmorate.storage;
 
+import ru.yandex.practicum.filmorate.graph.FriendshipGraph;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface UserStorage {
     List<User> getUsers();
 
-    User getUserById(int id);
+    Optional<User> getUserById(int id);
+
+    List<User> getUsersByIds(List<Integer> ids);
 
     User addUser(User user);
 
@@ -15,6 +19,8 @@ public interface UserStorage {
 
     void deleteUser(int id);
 
+    List<Integer> deleteUsers(List<Integer> ids, int batchSize);
+
     List<User> getUserFriends(int userId);
 
     List<User> getCommonFriends(int userId, int otherUserId);
@@ -24,4 +30,6 @@ public interface UserStorage {
     void deleteFriend(int userId, int friendId);
 
     boolean userExists(int id);
+
+    FriendshipGraph getFriendshipGraph();
 }
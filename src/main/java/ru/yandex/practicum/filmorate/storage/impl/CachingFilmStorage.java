@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.invalidation.CacheInvalidator;
+import ru.yandex.practicum.filmorate.invalidation.EntityChange;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+@Component
+@Primary
+public class CachingFilmStorage implements FilmStorage {
+    private final CoalescingFilmStorage filmStorage;
+    private final Cache<Integer, Film> films;
+
+    public CachingFilmStorage(CoalescingFilmStorage filmStorage, MeterRegistry meterRegistry,
+                              CacheInvalidator cacheInvalidator,
+                              @Value("${filmorate.cache.films.max-weight:16777216}") long maxWeight,
+                              @Value("${filmorate.cache.films.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.filmStorage = filmStorage;
+        this.films = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .expireAfterWrite(expireAfterWrite)
+                .weigher((Integer id, Film film) -> weigh(film))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, films, "films");
+        cacheInvalidator.subscribeEvictions(this::evict);
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @Override
+    public List<Film> getMostPopularFilms(int count) {
+        return filmStorage.getMostPopularFilms(count);
+    }
+
+    @Override
+    public Optional<Film> getFilmById(int id) {
+        Film film = films.get(id, key -> onPrimary(() -> filmStorage.getFilmById(key)).orElse(null));
+        return film == null ? Optional.empty() : Optional.of(film.toBuilder().build());
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Integer> ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public boolean updateFilm(Film film, boolean genresChanged) {
+        try {
+            return filmStorage.updateFilm(film, genresChanged);
+        } finally {
+            invalidate(film.getId());
+        }
+    }
+
+    @Override
+    public void deleteFilm(int id) {
+        try {
+            filmStorage.deleteFilm(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteFilms(List<Integer> ids, int batchSize) {
+        try {
+            return filmStorage.deleteFilms(ids, batchSize);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteLikesByUsers(List<Integer> userIds, int batchSize) {
+        return filmStorage.deleteLikesByUsers(userIds, batchSize);
+    }
+
+    @Override
+    public void addLike(int filmId, int userId) {
+        filmStorage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        return filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Override
+    public boolean filmExists(int id) {
+        return films.getIfPresent(id) != null || filmStorage.filmExists(id);
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCounts() {
+        return filmStorage.getLikesCounts();
+    }
+
+    @Override
+    public int getLikesCount(int filmId) {
+        return filmStorage.getLikesCount(filmId);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId) {
+        return filmStorage.getLikedFilmsIds(userId);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId, int afterFilmId, int limit) {
+        return filmStorage.getLikedFilmsIds(userId, afterFilmId, limit);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId, List<Integer> filmIds) {
+        return filmStorage.getLikedFilmsIds(userId, filmIds);
+    }
+
+    private void evict(EntityChange change) {
+        if (change.getType() == EntityChange.Type.FILM_UPDATED || change.getType() == EntityChange.Type.FILM_DELETED) {
+            films.invalidate(change.getId());
+        }
+    }
+
+    private void invalidate(int id) {
+        films.invalidate(id);
+        afterCommit(() -> films.invalidate(id));
+    }
+
+    private static int weigh(Film film) {
+        return 96 + 2 * (length(film.getName()) + length(film.getDescription()) + length(film.getMpa().getName()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraph;
+import ru.yandex.practicum.filmorate.invalidation.CacheInvalidator;
+import ru.yandex.practicum.filmorate.invalidation.EntityChange;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+@Component
+@Primary
+public class CachingUserStorage implements UserStorage {
+    private final CoalescingUserStorage userStorage;
+    private final Cache<Integer, User> users;
+
+    public CachingUserStorage(CoalescingUserStorage userStorage, MeterRegistry meterRegistry,
+                              CacheInvalidator cacheInvalidator,
+                              @Value("${filmorate.cache.users.max-weight:8388608}") long maxWeight,
+                              @Value("${filmorate.cache.users.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.userStorage = userStorage;
+        this.users = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .expireAfterWrite(expireAfterWrite)
+                .weigher((Integer id, User user) -> weigh(user))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        cacheInvalidator.subscribeEvictions(this::evict);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return userStorage.getUsers();
+    }
+
+    @Override
+    public Optional<User> getUserById(int id) {
+        User user = users.get(id, key -> onPrimary(() -> userStorage.getUserById(key)).orElse(null));
+        return user == null ? Optional.empty() : Optional.of(user.toBuilder().build());
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Integer> ids) {
+        return userStorage.getUsersByIds(ids);
+    }
+
+    @Override
+    public User addUser(User user) {
+        return userStorage.addUser(user);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        try {
+            return userStorage.updateUser(user);
+        } finally {
+            invalidate(user.getId());
+        }
+    }
+
+    @Override
+    public void deleteUser(int id) {
+        try {
+            userStorage.deleteUser(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteUsers(List<Integer> ids, int batchSize) {
+        try {
+            return userStorage.deleteUsers(ids, batchSize);
+        } finally {
+            ids.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public List<User> getUserFriends(int userId) {
+        return userStorage.getUserFriends(userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        return userStorage.getCommonFriends(userId, otherUserId);
+    }
+
+    @Override
+    public void addFriend(int userId, int friendId) {
+        userStorage.addFriend(userId, friendId);
+    }
+
+    @Override
+    public void deleteFriend(int userId, int friendId) {
+        userStorage.deleteFriend(userId, friendId);
+    }
+
+    @Override
+    public FriendshipGraph getFriendshipGraph() {
+        return userStorage.getFriendshipGraph();
+    }
+
+    @Override
+    public boolean userExists(int id) {
+        return users.getIfPresent(id) != null || userStorage.userExists(id);
+    }
+
+    private void evict(EntityChange change) {
+        if (change.getType() == EntityChange.Type.USER_UPDATED || change.getType() == EntityChange.Type.USER_DELETED) {
+            users.invalidate(change.getId());
+        }
+    }
+
+    private void invalidate(int id) {
+        users.invalidate(id);
+        afterCommit(() -> users.invalidate(id));
+    }
+
+    private static int weigh(User user) {
+        return 96 + 2 * (length(user.getName()) + length(user.getEmail()) + length(user.getLogin()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Change;
+import ru.yandex.practicum.filmorate.storage.ChangeStorage;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCompletion;
+
+@Component
+public class ChangeDbStorage implements ChangeStorage {
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public ChangeDbStorage(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void append(Change.Entity entity, Change.Operation operation, int entityId, Integer relatedId) {
+        // The counter row stays locked until commit, so seqs become visible in commit order on every node.
+        Long seq = jdbcTemplate.queryForObject(
+                "SELECT seq FROM FINAL TABLE (UPDATE changes_seq SET seq = seq + 1 WHERE id = 1)", Long.class);
+
+        jdbcTemplate.update("INSERT INTO changes (seq, entity, operation, entity_id, related_id) "
+                + "VALUES (?, ?, ?, ?, ?)", seq, entity.name(), operation.name(), entityId, relatedId);
+        afterCompletion(() -> listeners.forEach(Runnable::run));
+    }
+
+    @Override
+    public List<Change> getChanges(long since, int limit) {
+        String sql = "SELECT * FROM changes WHERE seq > ? ORDER BY seq LIMIT ?";
+        return jdbcTemplate.query(sql, this::makeChange, since, limit);
+    }
+
+    @Override
+    public long pruneChanges(LocalDateTime before, int chunkSize) {
+        String sql = "SELECT MAX(seq) FROM (SELECT seq FROM changes WHERE created_at < ? ORDER BY seq LIMIT ?)";
+        long prunedUpTo = getPrunedUpTo();
+
+        while (true) {
+            Long chunkMax = jdbcTemplate.queryForObject(sql, Long.class, Timestamp.valueOf(before), chunkSize);
+
+            if (chunkMax == null) {
+                return prunedUpTo;
+            }
+            jdbcTemplate.update("UPDATE changes_pruned SET seq = GREATEST(seq, ?) WHERE id = 1", chunkMax);
+            jdbcTemplate.update("DELETE FROM changes WHERE seq <= ?", chunkMax);
+            prunedUpTo = Math.max(prunedUpTo, chunkMax);
+        }
+    }
+
+    @Override
+    public long getPrunedUpTo() {
+        Long prunedUpTo = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM changes_pruned", Long.class);
+        return prunedUpTo == null ? 0 : prunedUpTo;
+    }
+
+    @Override
+    public void subscribe(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private Change makeChange(ResultSet rs, int rowNum) throws SQLException {
+        Integer relatedId = rs.getInt("related_id");
+        if (rs.wasNull()) {
+            relatedId = null;
+        }
+
+        return Change.builder()
+                .seq(rs.getLong("seq"))
+                .entity(Change.Entity.valueOf(rs.getString("entity")))
+                .operation(Change.Operation.valueOf(rs.getString("operation")))
+                .entityId(rs.getInt("entity_id"))
+                .relatedId(relatedId)
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+}
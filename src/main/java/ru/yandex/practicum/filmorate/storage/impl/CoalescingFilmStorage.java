@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.util.BatchLoader;
+import ru.yandex.practicum.filmorate.util.SingleFlight;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.isPrimaryOnly;
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.isReadPinned;
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+@Component
+public class CoalescingFilmStorage implements FilmStorage {
+    private static final int MAX_BATCH_SIZE = 500;
+    private final FilmDbStorage filmStorage;
+    private final BatchLoader<Film> filmsLoader;
+    private final BatchLoader<Film> primaryFilmsLoader;
+    private final SingleFlight<Long, Optional<Film>> filmByIdFlights = new SingleFlight<>();
+    private final SingleFlight<Long, List<Film>> popularFilmsFlights = new SingleFlight<>();
+    private final SingleFlight<Long, Boolean> filmExistsFlights = new SingleFlight<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    public CoalescingFilmStorage(FilmDbStorage filmStorage,
+                                 @Value("${filmorate.storage.batch-window-micros:500}") long batchWindowMicros) {
+        this.filmStorage = filmStorage;
+        this.filmsLoader = new BatchLoader<>(filmStorage::getFilmsByIds, Film::getId,
+                TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), MAX_BATCH_SIZE);
+        this.primaryFilmsLoader = new BatchLoader<>(ids -> onPrimary(() -> filmStorage.getFilmsByIds(ids)),
+                Film::getId, TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @Override
+    public List<Film> getMostPopularFilms(int count) {
+        if (!canCoalesce()) {
+            return filmStorage.getMostPopularFilms(count);
+        }
+
+        return popularFilmsFlights.execute(key(count), () -> filmStorage.getMostPopularFilms(count)).stream()
+                .map(this::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Film> getFilmById(int id) {
+        if (!canCoalesce()) {
+            return filmStorage.getFilmById(id);
+        }
+        BatchLoader<Film> loader = isPrimaryOnly() ? primaryFilmsLoader : filmsLoader;
+
+        return filmByIdFlights.execute(key(id), () -> loader.load(id)).map(this::copy);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(List<Integer> ids) {
+        return filmStorage.getFilmsByIds(ids);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        try {
+            return filmStorage.addFilm(film);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public boolean updateFilm(Film film, boolean genresChanged) {
+        try {
+            return filmStorage.updateFilm(film, genresChanged);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public void deleteFilm(int id) {
+        try {
+            filmStorage.deleteFilm(id);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteFilms(List<Integer> ids, int batchSize) {
+        try {
+            return filmStorage.deleteFilms(ids, batchSize);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteLikesByUsers(List<Integer> userIds, int batchSize) {
+        try {
+            return filmStorage.deleteLikesByUsers(userIds, batchSize);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public void addLike(int filmId, int userId) {
+        try {
+            filmStorage.addLike(filmId, userId);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public boolean deleteLike(int filmId, int userId) {
+        try {
+            return filmStorage.deleteLike(filmId, userId);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public boolean filmExists(int id) {
+        if (!canCoalesce()) {
+            return filmStorage.filmExists(id);
+        }
+
+        return filmExistsFlights.execute(key(id), () -> filmStorage.filmExists(id));
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCounts() {
+        return filmStorage.getLikesCounts();
+    }
+
+    @Override
+    public int getLikesCount(int filmId) {
+        return filmStorage.getLikesCount(filmId);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId) {
+        return filmStorage.getLikedFilmsIds(userId);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId, int afterFilmId, int limit) {
+        return filmStorage.getLikedFilmsIds(userId, afterFilmId, limit);
+    }
+
+    @Override
+    public List<Integer> getLikedFilmsIds(int userId, List<Integer> filmIds) {
+        return filmStorage.getLikedFilmsIds(userId, filmIds);
+    }
+
+    private long key(int id) {
+        return writes.get() << 33 | (isPrimaryOnly() ? 1L << 32 : 0) | (id & 0xFFFFFFFFL);
+    }
+
+    private static boolean canCoalesce() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() && !isReadPinned();
+    }
+
+    private Film copy(Film film) {
+        return film.toBuilder().build();
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraph;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.BatchLoader;
+import ru.yandex.practicum.filmorate.util.SingleFlight;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.isPrimaryOnly;
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.isReadPinned;
+import static ru.yandex.practicum.filmorate.storage.replica.ReplicaRouting.onPrimary;
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+@Component
+public class CoalescingUserStorage implements UserStorage {
+    private static final int MAX_BATCH_SIZE = 500;
+    private final UserDbStorage userStorage;
+    private final BatchLoader<User> usersLoader;
+    private final BatchLoader<User> primaryUsersLoader;
+    private final SingleFlight<Long, Optional<User>> userByIdFlights = new SingleFlight<>();
+    private final SingleFlight<Long, Boolean> userExistsFlights = new SingleFlight<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    public CoalescingUserStorage(UserDbStorage userStorage,
+                                 @Value("${filmorate.storage.batch-window-micros:500}") long batchWindowMicros) {
+        this.userStorage = userStorage;
+        this.usersLoader = new BatchLoader<>(userStorage::getUsersByIds, User::getId,
+                TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), MAX_BATCH_SIZE);
+        this.primaryUsersLoader = new BatchLoader<>(ids -> onPrimary(() -> userStorage.getUsersByIds(ids)),
+                User::getId, TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return userStorage.getUsers();
+    }
+
+    @Override
+    public Optional<User> getUserById(int id) {
+        if (!canCoalesce()) {
+            return userStorage.getUserById(id);
+        }
+        BatchLoader<User> loader = isPrimaryOnly() ? primaryUsersLoader : usersLoader;
+
+        return userByIdFlights.execute(key(id), () -> loader.load(id)).map(this::copy);
+    }
+
+    @Override
+    public List<User> getUsersByIds(List<Integer> ids) {
+        return userStorage.getUsersByIds(ids);
+    }
+
+    @Override
+    public User addUser(User user) {
+        try {
+            return userStorage.addUser(user);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public User updateUser(User user) {
+        try {
+            return userStorage.updateUser(user);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public void deleteUser(int id) {
+        try {
+            userStorage.deleteUser(id);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public List<Integer> deleteUsers(List<Integer> ids, int batchSize) {
+        try {
+            return userStorage.deleteUsers(ids, batchSize);
+        } finally {
+            afterCommit(writes::incrementAndGet);
+        }
+    }
+
+    @Override
+    public List<User> getUserFriends(int userId) {
+        return userStorage.getUserFriends(userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherUserId) {
+        return userStorage.getCommonFriends(userId, otherUserId);
+    }
+
+    @Override
+    public void addFriend(int userId, int friendId) {
+        userStorage.addFriend(userId, friendId);
+    }
+
+    @Override
+    public void deleteFriend(int userId, int friendId) {
+        userStorage.deleteFriend(userId, friendId);
+    }
+
+    @Override
+    public FriendshipGraph getFriendshipGraph() {
+        return userStorage.getFriendshipGraph();
+    }
+
+    @Override
+    public boolean userExists(int id) {
+        if (!canCoalesce()) {
+            return userStorage.userExists(id);
+        }
+
+        return userExistsFlights.execute(key(id), () -> userStorage.userExists(id));
+    }
+
+    private long key(int id) {
+        return writes.get() << 33 | (isPrimaryOnly() ? 1L << 32 : 0) | (id & 0xFFFFFFFFL);
+    }
+
+    private static boolean canCoalesce() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() && !isReadPinned();
+    }
+
+    private User copy(User user) {
+        return user.toBuilder().build();
+    }
+}
@@ -1,49 +1,85 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Primary;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Change;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.ChangeStorage;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterRollback;
 
 @Component
-@Primary
 public class FilmDbStorage implements FilmStorage {
+    private static final String SELECT_FILMS = "SELECT f.film_id, "
+            + "f.name, "
+            + "f.description, "
+            + "f.release_date, "
+            + "f.duration, "
+            + "f.mpa_id, "
+            + "f.version, "
+            + "m.name AS mpa_name "
+            + "FROM films AS f LEFT JOIN mpa AS m ON f.mpa_id = m.mpa_id";
+    private static final String INSERT_LIKE = "MERGE INTO films_likes KEY (film_id, user_id) VALUES (?, ?)";
+    private static final String DELETE_LIKE = "DELETE FROM films_likes WHERE film_id = ? AND user_id = ?";
     private final JdbcTemplate jdbcTemplate;
+    private final ChangeStorage changeStorage;
+    private final MpaStorage mpaStorage;
+    private final LikesShards likesShards;
+    private final SimpleJdbcInsert filmInsert;
 
     @Autowired
-    public FilmDbStorage(JdbcTemplate jdbcTemplate) {
+    public FilmDbStorage(JdbcTemplate jdbcTemplate, ChangeStorage changeStorage, MpaStorage mpaStorage,
+                         LikesShards likesShards) {
         this.jdbcTemplate = jdbcTemplate;
+        this.changeStorage = changeStorage;
+        this.mpaStorage = mpaStorage;
+        this.likesShards = likesShards;
+        this.filmInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("films")
+                .usingColumns("name", "description", "release_date", "duration", "mpa_id", "version")
+                .usingGeneratedKeyColumns("film_id");
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Film> getFilms() {
-        String sql = "SELECT f.film_id, "
-                + "f.name, "
-                + "f.description, "
-                + "f.release_date, "
-                + "f.duration, "
-                + "f.mpa_id, "
-                + "m.name AS mpa_name "
-                + "FROM films AS f LEFT OUTER JOIN mpa AS m ON f.mpa_id = m.mpa_id";
-        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs));
+        return jdbcTemplate.query(SELECT_FILMS, (rs, rowNum) -> makeFilm(rs));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Film> getMostPopularFilms(int count) {
+        if (likesShards.isSharded()) {
+            return getMostPopularFilmsSharded(count);
+        }
+
         String sql = "SELECT f.*, m.mpa_id, m.name AS mpa_name, COUNT(fl.film_id) " +
                 "FROM films AS f " +
                 "LEFT JOIN films_likes AS fl on f.film_id = fl.film_id " +
@@ -55,94 +91,289 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
-    public Film getFilmById(int id) {
-        String sql = "SELECT f.film_id, "
-                + "f.name, "
-                + "f.description, "
-                + "f.release_date, "
-                + "f.duration, "
-                + "f.mpa_id, "
-                + "m.name AS mpa_name "
-                + "FROM films AS f LEFT JOIN mpa AS m ON f.mpa_id = m.mpa_id "
-                + "WHERE film_id = ?";
-        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeFilm(rs), id);
+    @Transactional(readOnly = true)
+    public Optional<Film> getFilmById(int id) {
+        String sql = SELECT_FILMS + " WHERE f.film_id = ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), id).stream().findFirst();
     }
 
     @Override
-    public Film addFilm(Film film) {
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("films")
-                .usingGeneratedKeyColumns("film_id");
+    @Transactional(readOnly = true)
+    public List<Film> getFilmsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
 
+        String sql = SELECT_FILMS + " WHERE f.film_id = ANY(?)";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeFilm(rs), (Object) ids.toArray(new Integer[0]));
+    }
+
+    @Override
+    @Transactional
+    public Film addFilm(Film film) {
         Map<String, Object> filmValues = new HashMap<>();
         filmValues.put("name", film.getName());
         filmValues.put("description", film.getDescription());
         filmValues.put("release_date", Date.valueOf(film.getReleaseDate()));
         filmValues.put("duration", film.getDuration());
         filmValues.put("mpa_id", film.getMpa().getId());
+        filmValues.put("version", 0);
 
-        int filmId = simpleJdbcInsert.executeAndReturnKey(filmValues).intValue();
-        film.setId(filmId);
+        film.setId(filmInsert.executeAndReturnKey(filmValues).intValue());
+        film.setVersion(0);
+        changeStorage.append(Change.Entity.FILM, Change.Operation.CREATE, film.getId(), null);
 
-        return getFilmById(filmId);
+        return film;
     }
 
     @Override
-    public Film updateFilm(Film film) {
-        String sql = "UPDATE films " +
-                "SET name = ?, description = ?, " +
-                "release_date = ?, duration = ?, mpa_id = ? " +
-                "WHERE film_id = ?";
-        jdbcTemplate.update(sql, film.getName(),
-                film.getDescription(), Date.valueOf(film.getReleaseDate()),
-                film.getDuration(), film.getMpa().getId(), film.getId());
+    @Transactional
+    public boolean updateFilm(Film film, boolean genresChanged) {
+        String sql = "SELECT film_id, name, description, release_date, duration, mpa_id, version " +
+                "FROM films WHERE film_id = ? FOR UPDATE";
+        Film current = jdbcTemplate.query(sql, (rs, rowNum) -> Film.builder()
+                        .id(rs.getInt("film_id"))
+                        .name(rs.getString("name"))
+                        .description(rs.getString("description"))
+                        .releaseDate(rs.getDate("release_date").toLocalDate())
+                        .duration(rs.getInt("duration"))
+                        .mpa(new Mpa(rs.getInt("mpa_id"), null))
+                        .version(rs.getInt("version"))
+                        .build(), film.getId()).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException(String.format("Film %d is not found", film.getId())));
+
+        if (film.getVersion() != null && !film.getVersion().equals(current.getVersion())) {
+            throw new ConflictException(String.format(
+                    "Film %d was modified, version %d is outdated", film.getId(), film.getVersion()));
+        }
+        if (!genresChanged && sameRow(current, film)) {
+            film.setVersion(current.getVersion());
+            return false;
+        }
 
-        return getFilmById(film.getId());
+        jdbcTemplate.update("UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, " +
+                        "mpa_id = ?, version = ? WHERE film_id = ?", film.getName(), film.getDescription(),
+                Date.valueOf(film.getReleaseDate()), film.getDuration(), film.getMpa().getId(),
+                current.getVersion() + 1, film.getId());
+        film.setVersion(current.getVersion() + 1);
+        changeStorage.append(Change.Entity.FILM, Change.Operation.UPDATE, film.getId(), null);
+        return true;
     }
 
     @Override
+    @Transactional
     public void deleteFilm(int id) {
         String sql = "DELETE FROM films WHERE film_id = ?";
-        jdbcTemplate.update(sql, id);
+
+        if (likesShards.isSharded()) {
+            likesShards.forFilm(id).update("DELETE FROM films_likes WHERE film_id = ?", id);
+        }
+        if (jdbcTemplate.update(sql, id) > 0) {
+            changeStorage.append(Change.Entity.FILM, Change.Operation.DELETE, id, null);
+        }
     }
 
     @Override
+    @Transactional
+    public List<Integer> deleteFilms(List<Integer> ids, int batchSize) {
+        Integer[] idsArray = ids.toArray(new Integer[0]);
+
+        restoreOnRollback(likesShards.scatter(shard -> deleteInBatches(shard, "SELECT film_id, user_id "
+                        + "FROM OLD TABLE (DELETE FROM films_likes WHERE film_id = ANY(?) LIMIT ?)", this::makeLike,
+                idsArray, batchSize)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList()), INSERT_LIKE);
+        List<Integer> deleted = jdbcTemplate.queryForList(
+                "SELECT film_id FROM OLD TABLE (DELETE FROM films WHERE film_id = ANY(?))",
+                Integer.class, (Object) idsArray);
+
+        deleted.forEach(id -> changeStorage.append(Change.Entity.FILM, Change.Operation.DELETE, id, null));
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> deleteLikesByUsers(List<Integer> userIds, int batchSize) {
+        Integer[] userIdsArray = userIds.toArray(new Integer[0]);
+
+        List<int[]> deleted = likesShards.scatter(shard -> deleteInBatches(shard, "SELECT film_id, user_id "
+                        + "FROM OLD TABLE (DELETE FROM films_likes WHERE user_id = ANY(?) LIMIT ?)", this::makeLike,
+                        userIdsArray, batchSize)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+
+        restoreOnRollback(deleted, INSERT_LIKE);
+
+        deleted.forEach(like -> changeStorage.append(Change.Entity.LIKE, Change.Operation.DELETE, like[0], like[1]));
+        return deleted.stream()
+                .map(like -> like[0])
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public void addLike(int filmId, int userId) {
         try {
-            jdbcTemplate.update(
+            likesShards.forFilm(filmId).update(
                     "INSERT INTO films_likes (film_id, user_id) VALUES (?, ?)", filmId, userId);
         } catch (DuplicateKeyException e) {
             throw new ValidationException(
                     String.format("User %d already likes film %d", userId, filmId));
         }
+        restoreOnRollback(List.of(new int[]{filmId, userId}), DELETE_LIKE);
+        changeStorage.append(Change.Entity.LIKE, Change.Operation.CREATE, filmId, userId);
     }
 
     @Override
-    public void deleteLike(int filmId, int userId) {
-        jdbcTemplate.update(
-                "DELETE FROM films_likes WHERE film_id = ? AND user_id = ?", filmId, userId);
+    @Transactional
+    public boolean deleteLike(int filmId, int userId) {
+        boolean deleted = likesShards.forFilm(filmId).update(DELETE_LIKE, filmId, userId) > 0;
+
+        if (deleted) {
+            restoreOnRollback(List.of(new int[]{filmId, userId}), INSERT_LIKE);
+            changeStorage.append(Change.Entity.LIKE, Change.Operation.DELETE, filmId, userId);
+        }
+        return deleted;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean filmExists(int id) {
         String sql = "SELECT film_id FROM films WHERE film_id = ?";
+        return Boolean.TRUE.equals(jdbcTemplate.query(sql, ResultSet::next, id));
+    }
 
-        try {
-            jdbcTemplate.queryForObject(sql, Integer.class, id);
-            return true;
-        } catch (EmptyResultDataAccessException e) {
-            return false;
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> getLikesCounts() {
+        String sql = "SELECT film_id, COUNT(user_id) AS likes FROM films_likes GROUP BY film_id";
+        Map<Integer, Integer> likesCounts = new HashMap<>();
+
+        likesShards.scatter(shard -> {
+            Map<Integer, Integer> shardCounts = new HashMap<>();
+            shard.query(sql, rs -> {
+                shardCounts.put(rs.getInt("film_id"), rs.getInt("likes"));
+            });
+            return shardCounts;
+        }).forEach(likesCounts::putAll);
+        return likesCounts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getLikesCount(int filmId) {
+        String sql = "SELECT COUNT(user_id) FROM films_likes WHERE film_id = ?";
+        Integer count = likesShards.forFilm(filmId).queryForObject(sql, Integer.class, filmId);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> getLikedFilmsIds(int userId) {
+        String sql = "SELECT film_id FROM films_likes WHERE user_id = ?";
+        return likesShards.scatter(shard -> shard.queryForList(sql, Integer.class, userId)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> getLikedFilmsIds(int userId, int afterFilmId, int limit) {
+        String sql = "SELECT film_id FROM films_likes WHERE user_id = ? AND film_id > ? ORDER BY film_id LIMIT ?";
+        return likesShards.scatter(shard -> shard.queryForList(sql, Integer.class, userId, afterFilmId, limit))
+                .stream()
+                .flatMap(List::stream)
+                .sorted()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Integer> getLikedFilmsIds(int userId, List<Integer> filmIds) {
+        if (filmIds.isEmpty()) {
+            return Collections.emptyList();
         }
+
+        String sql = "SELECT film_id FROM films_likes WHERE user_id = ? AND film_id = ANY(?)";
+        Integer[] filmIdsArray = filmIds.toArray(new Integer[0]);
+        return likesShards.scatter(shard -> shard.queryForList(sql, Integer.class, userId, filmIdsArray)).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    private List<Film> getMostPopularFilmsSharded(int count) {
+        String sql = "SELECT film_id, COUNT(user_id) AS likes FROM films_likes "
+                + "GROUP BY film_id ORDER BY likes DESC, film_id LIMIT ?";
+        List<Integer> ranked = likesShards.scatter(shard -> shard.query(sql,
+                        (rs, rowNum) -> new int[]{rs.getInt("film_id"), rs.getInt("likes")}, count)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.<int[]>comparingInt(row -> -row[1]).thenComparingInt(row -> row[0]))
+                .limit(count)
+                .map(row -> row[0])
+                .collect(Collectors.toList());
+
+        Map<Integer, Film> films = getFilmsByIds(ranked).stream()
+                .collect(Collectors.toMap(Film::getId, Function.identity()));
+        List<Film> popular = ranked.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        if (popular.size() < count) {
+            Set<Integer> rankedIds = new HashSet<>(ranked);
+            jdbcTemplate.query(SELECT_FILMS + " ORDER BY f.film_id LIMIT ?", (rs, rowNum) -> makeFilm(rs),
+                            count + rankedIds.size()).stream()
+                    .filter(film -> !rankedIds.contains(film.getId()))
+                    .limit(count - popular.size())
+                    .forEach(popular::add);
+        }
+        return popular;
+    }
+
+    private void restoreOnRollback(List<int[]> likes, String sql) {
+        if (likesShards.isSharded() && !likes.isEmpty()) {
+            afterRollback(() -> likes.forEach(like -> likesShards.forFilm(like[0]).update(sql, like[0], like[1])));
+        }
+    }
+
+    private int[] makeLike(ResultSet rs, int rowNum) throws SQLException {
+        return new int[]{rs.getInt("film_id"), rs.getInt("user_id")};
+    }
+
+    private static <T> List<T> deleteInBatches(JdbcTemplate shard, String sql, RowMapper<T> rowMapper,
+                                               Integer[] ids, int batchSize) {
+        List<T> deleted = new ArrayList<>();
+        List<T> batch;
+
+        do {
+            batch = shard.query(sql, rowMapper, ids, batchSize);
+            deleted.addAll(batch);
+        } while (batch.size() == batchSize);
+        return deleted;
+    }
+
+    private static boolean sameRow(Film current, Film film) {
+        return Objects.equals(current.getName(), film.getName())
+                && Objects.equals(current.getDescription(), film.getDescription())
+                && Objects.equals(current.getReleaseDate(), film.getReleaseDate())
+                && current.getDuration() == film.getDuration()
+                && current.getMpa().getId() == film.getMpa().getId();
     }
 
     private Film makeFilm(ResultSet rs) throws SQLException {
+        int mpaId = rs.getInt("mpa_id");
+        Mpa mpa = mpaStorage.getMpaById(mpaId).orElse(null);
+
         return Film.builder()
                 .id(rs.getInt("film_id"))
                 .name(rs.getString("name"))
                 .description(rs.getString("description"))
                 .releaseDate(rs.getDate("release_date").toLocalDate())
                 .duration(rs.getInt("duration"))
-                .mpa(new Mpa(rs.getInt("mpa_id"), rs.getString("mpa_name")))
+                .mpa(mpa != null ? mpa : new Mpa(mpaId, rs.getString("mpa_name")))
+                .version(rs.getInt("version"))
                 .build();
     }
 }
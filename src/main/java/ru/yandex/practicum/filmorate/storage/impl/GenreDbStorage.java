@@ -1,10 +1,10 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FilmGenresIndex;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.GenreStorage;
@@ -12,15 +12,24 @@ import ru.yandex.practicum.filmorate.storage.GenreStorage;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
 @Component
 public class GenreDbStorage implements GenreStorage {
     private final JdbcTemplate jdbcTemplate;
+    private volatile Map<Integer, Genre> dictionary;
+    private volatile FilmGenresIndex filmGenresIndex;
 
     public GenreDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -28,96 +37,172 @@ public class GenreDbStorage implements GenreStorage {
 
     @Override
     public List<Genre> getGenres() {
-        String sql = "SELECT * FROM genres ORDER BY genre_id";
-        return jdbcTemplate.query(sql, this::makeGenre);
+        return new ArrayList<>(getDictionary().values());
     }
 
     @Override
-    public Genre getGenreById(int id) {
-        String sql = "SELECT * FROM genres WHERE genre_id = ?";
-
-        try {
-            return jdbcTemplate.queryForObject(sql, this::makeGenre, id);
-        } catch (EmptyResultDataAccessException e) {
-            throw new NotFoundException(String.format("Genre %d is not found", id));
-        }
+    public Optional<Genre> getGenreById(int id) {
+        return Optional.ofNullable(getDictionary().get(id));
     }
 
     @Override
-    public Map<Integer, List<Genre>> getAllFilmsGenres() {
-        String sql = "SELECT fg.film_id, g.genre_id, g.name "
-                + "FROM films_genres AS fg JOIN genres AS g ON fg.genre_id = g.genre_id";
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(sql);
-
-        return getFilmsGenres(rs);
+    public FilmGenresIndex getAllFilmsGenres() {
+        return getFilmGenresIndex();
     }
 
     @Override
     public List<Genre> getGenresByFilmId(int filmId) {
-        String sql =
-                "SELECT g.* FROM genres AS g JOIN films_genres AS fg ON g.genre_id = fg.genre_id WHERE fg.film_id = ?";
-        try {
-            return jdbcTemplate.query(sql, this::makeGenre, filmId);
-        } catch (EmptyResultDataAccessException e) {
-            return Collections.emptyList();
-        }
+        return getFilmGenresIndex().get(filmId);
     }
 
     @Override
     public Map<Integer, List<Genre>> getGenresByFilmsIds(List<Integer> filmsIds) {
-        String inSql = String.join(",", Collections.nCopies(filmsIds.size(), "?"));
-        SqlRowSet rs = jdbcTemplate.queryForRowSet(String.format("SELECT fg.film_id, g.genre_id, g.name " +
-                "FROM films_genres AS fg JOIN genres AS g ON fg.genre_id = g.genre_id " +
-                "WHERE fg.film_id IN (%s)", inSql), filmsIds.toArray());
+        FilmGenresIndex index = getFilmGenresIndex();
+        Map<Integer, List<Genre>> filmsGenres = new HashMap<>();
+
+        for (Integer filmId : filmsIds) {
+            List<Genre> genres = index.get(filmId);
+            if (!genres.isEmpty()) {
+                filmsGenres.put(filmId, genres);
+            }
+        }
 
-        return getFilmsGenres(rs);
+        return filmsGenres;
     }
 
     @Override
-    public void updateFilmGenres(Film film) {
-        deleteFilmGenres(film.getId());
+    @Transactional
+    public boolean updateFilmGenres(Film film) {
+        FilmGenresIndex index = getFilmGenresIndex();
+        if (jdbcTemplate.queryForList("SELECT film_id FROM films WHERE film_id = ? FOR UPDATE", Integer.class,
+                film.getId()).isEmpty()) {
+            throw new NotFoundException(String.format("Film %d is not found", film.getId()));
+        }
+
+        Set<Integer> current = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT genre_id FROM films_genres WHERE film_id = ? FOR UPDATE", Integer.class, film.getId()));
+        Set<Integer> desired = film.getGenres() == null ? Collections.emptySet() : film.getGenres().stream()
+                .map(Genre::getId)
+                .collect(Collectors.toSet());
+        int[] genreIds = desired.stream().mapToInt(Integer::intValue).toArray();
 
-        if (film.getGenres() == null) {
-            return;
+        film.setGenres(index.toGenres(genreIds));
+        if (current.equals(desired)) {
+            return false;
         }
 
-        List<Object[]> batch = new ArrayList<>();
-        List<Genre> genres = film.getGenres().stream()
-                .distinct()
-                .collect(Collectors.toList());
+        List<Object[]> toDelete = new ArrayList<>();
+        List<Object[]> toInsert = new ArrayList<>();
+
+        for (Integer genreId : current) {
+            if (!desired.contains(genreId)) {
+                toDelete.add(new Object[]{film.getId(), genreId});
+            }
+        }
+        for (Integer genreId : desired) {
+            if (!current.contains(genreId)) {
+                toInsert.add(new Object[]{film.getId(), genreId});
+            }
+        }
 
-        for (Genre genre : genres) {
-            Object[] values = new Object[]{film.getId(), genre.getId()};
-            batch.add(values);
+        if (!toDelete.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM films_genres WHERE film_id = ? AND genre_id = ?", toDelete);
+        }
+        if (!toInsert.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO films_genres VALUES(?, ?)", toInsert);
         }
 
-        jdbcTemplate.batchUpdate("INSERT INTO films_genres VALUES(?, ?)", batch);
+        afterCommit(() -> index.put(film.getId(), genreIds));
+        return true;
     }
 
     @Override
+    @Transactional
     public void deleteFilmGenres(int filmId) {
         String sql = "DELETE FROM films_genres WHERE film_id = ?";
         jdbcTemplate.update(sql, filmId);
+
+        FilmGenresIndex index = getFilmGenresIndex();
+        afterCommit(() -> index.put(filmId, new int[0]));
     }
 
-    private Map<Integer, List<Genre>> getFilmsGenres(SqlRowSet rs) {
-        Map<Integer, List<Genre>> filmsGenres = new HashMap<>();
+    @Override
+    public void reloadFilmGenres(int filmId) {
+        FilmGenresIndex index = filmGenresIndex;
+
+        if (index != null) {
+            String sql = "SELECT genre_id FROM films_genres WHERE film_id = ?";
+            int[] genreIds = jdbcTemplate.queryForList(sql, Integer.class, filmId).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            index.put(filmId, genreIds);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteFilmsGenres(List<Integer> filmIds, int batchSize) {
+        String sql = "DELETE FROM films_genres WHERE film_id = ANY(?) LIMIT ?";
+        Integer[] filmIdsArray = filmIds.toArray(new Integer[0]);
+
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(sql, filmIdsArray, batchSize);
+        } while (deleted == batchSize);
+
+        FilmGenresIndex index = getFilmGenresIndex();
+        afterCommit(() -> filmIds.forEach(filmId -> index.put(filmId, new int[0])));
+    }
 
-        while (rs.next()) {
-            int filmId = rs.getInt("film_id");
-            Genre genre = new Genre(rs.getInt("genre_id"),
-                    rs.getString("name"));
+    private Map<Integer, Genre> getDictionary() {
+        Map<Integer, Genre> genres = dictionary;
 
-            if (!filmsGenres.containsKey(filmId)) {
-                List<Genre> genres = new ArrayList<>();
-                genres.add(genre);
-                filmsGenres.put(filmId, genres);
-            } else {
-                filmsGenres.get(filmId).add(genre);
+        if (genres == null) {
+            String sql = "SELECT * FROM genres ORDER BY genre_id";
+            genres = new LinkedHashMap<>();
+
+            for (Genre genre : jdbcTemplate.query(sql, this::makeGenre)) {
+                genres.put(genre.getId(), genre);
             }
+            dictionary = genres;
         }
+        return genres;
+    }
 
-        return filmsGenres;
+    private FilmGenresIndex getFilmGenresIndex() {
+        FilmGenresIndex index = filmGenresIndex;
+
+        if (index == null) {
+            synchronized (this) {
+                index = filmGenresIndex;
+                if (index == null) {
+                    index = loadFilmGenresIndex();
+                    filmGenresIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    private FilmGenresIndex loadFilmGenresIndex() {
+        List<Genre> genres = getGenres();
+        Genre[] dictionary = new Genre[genres.isEmpty() ? 0 : genres.get(genres.size() - 1).getId() + 1];
+        genres.forEach(genre -> dictionary[genre.getId()] = genre);
+
+        int[][] rows = {new int[256], new int[256]};
+        int[] size = {0};
+        jdbcTemplate.query("SELECT film_id, genre_id FROM films_genres", rs -> {
+            if (size[0] == rows[0].length) {
+                rows[0] = Arrays.copyOf(rows[0], size[0] * 2);
+                rows[1] = Arrays.copyOf(rows[1], size[0] * 2);
+            }
+            rows[0][size[0]] = rs.getInt("film_id");
+            rows[1][size[0]] = rs.getInt("genre_id");
+            size[0]++;
+        });
+
+        return FilmGenresIndex.build(dictionary, rows[0], rows[1], size[0]);
     }
 
     private Genre makeGenre(ResultSet rs, int rowNum) throws SQLException {
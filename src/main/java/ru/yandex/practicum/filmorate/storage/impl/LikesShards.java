@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class LikesShards implements DisposableBean {
+    private static final String SHARD_SCHEMA = "likes-shard.sql";
+    private final List<JdbcTemplate> shards;
+    private final boolean ownsDataSources;
+    private final ExecutorService executor;
+
+    @Autowired
+    public LikesShards(JdbcTemplate jdbcTemplate, DataSourceProperties properties,
+                       @Value("${filmorate.likes.shards.urls:}") List<String> urls) {
+        this(urls.isEmpty() ? List.of(jdbcTemplate) : createShards(properties, urls), !urls.isEmpty(),
+                !urls.isEmpty());
+    }
+
+    public LikesShards(JdbcTemplate jdbcTemplate) {
+        this(List.of(jdbcTemplate), false, false);
+    }
+
+    public LikesShards(List<JdbcTemplate> shards) {
+        this(shards, true, false);
+    }
+
+    private LikesShards(List<JdbcTemplate> shards, boolean sharded, boolean ownsDataSources) {
+        this.shards = List.copyOf(shards);
+        this.ownsDataSources = ownsDataSources;
+        this.executor = sharded ? newExecutor(shards.size()) : null;
+    }
+
+    public boolean isSharded() {
+        return executor != null;
+    }
+
+    public JdbcTemplate forFilm(int filmId) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+
+        int hash = filmId * 0x9E3779B9;
+        return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+    }
+
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        if (executor == null) {
+            return Collections.singletonList(query.apply(shards.get(0)));
+        }
+
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .collect(Collectors.toList());
+        try {
+            return futures.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (!ownsDataSources) {
+            return;
+        }
+        for (JdbcTemplate shard : shards) {
+            if (shard.getDataSource() instanceof Closeable) {
+                ((Closeable) shard.getDataSource()).close();
+            }
+        }
+    }
+
+    private static List<JdbcTemplate> createShards(DataSourceProperties properties, List<String> urls) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource(SHARD_SCHEMA));
+
+        return urls.stream()
+                .map(url -> {
+                    DataSource dataSource = properties.initializeDataSourceBuilder().url(url).build();
+                    DatabasePopulatorUtils.execute(populator, dataSource);
+                    return new JdbcTemplate(dataSource);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "likes-shard-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
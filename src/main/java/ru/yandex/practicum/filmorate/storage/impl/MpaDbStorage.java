@@ -1,19 +1,22 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.storage.MpaStorage;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class MpaDbStorage implements MpaStorage {
     private final JdbcTemplate jdbcTemplate;
+    private volatile Map<Integer, Mpa> dictionary;
 
     public MpaDbStorage(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
@@ -21,19 +24,27 @@ public class MpaDbStorage implements MpaStorage {
 
     @Override
     public List<Mpa> getAllMpa() {
-        String sql = "SELECT * FROM mpa";
-        return jdbcTemplate.query(sql, this::makeMpa);
+        return new ArrayList<>(getDictionary().values());
     }
 
     @Override
-    public Mpa getMpaById(int id) {
-        String sql = "SELECT * FROM mpa WHERE mpa_id = ?";
+    public Optional<Mpa> getMpaById(int id) {
+        return Optional.ofNullable(getDictionary().get(id));
+    }
+
+    private Map<Integer, Mpa> getDictionary() {
+        Map<Integer, Mpa> mpa = dictionary;
+
+        if (mpa == null) {
+            String sql = "SELECT * FROM mpa ORDER BY mpa_id";
+            mpa = new LinkedHashMap<>();
 
-        try {
-            return jdbcTemplate.queryForObject(sql, this::makeMpa, id);
-        } catch (EmptyResultDataAccessException e) {
-            throw new NotFoundException(String.format("Mpa %d is not found", id));
+            for (Mpa rating : jdbcTemplate.query(sql, this::makeMpa)) {
+                mpa.put(rating.getId(), rating);
+            }
+            dictionary = mpa;
         }
+        return mpa;
     }
 
     private Mpa makeMpa(ResultSet rs, int rowNum) throws SQLException {
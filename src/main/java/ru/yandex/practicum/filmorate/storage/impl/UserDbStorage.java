@@ -1,78 +1,144 @@
 package ru.yandex.practicum.filmorate.storage.impl;
 
-import org.springframework.context.annotation.Primary;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.graph.FriendshipGraph;
+import ru.yandex.practicum.filmorate.model.Change;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.ChangeStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
-@Primary
 public class UserDbStorage implements UserStorage {
     private final JdbcTemplate jdbcTemplate;
+    private final ChangeStorage changeStorage;
+    private final SimpleJdbcInsert userInsert;
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate, ChangeStorage changeStorage) {
         this.jdbcTemplate = jdbcTemplate;
+        this.changeStorage = changeStorage;
+        this.userInsert = new SimpleJdbcInsert(jdbcTemplate)
+                .withTableName("users")
+                .usingColumns("name", "email", "login", "birthday", "version")
+                .usingGeneratedKeyColumns("user_id");
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> getUsers() {
         String sql = "SELECT * FROM users";
         return jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs));
     }
 
     @Override
-    public User getUserById(int id) {
+    @Transactional(readOnly = true)
+    public Optional<User> getUserById(int id) {
         String sql = "SELECT * FROM users WHERE user_id = ?";
-        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> makeUser(rs), id);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs), id).stream().findFirst();
     }
 
     @Override
-    public User addUser(User user) {
-        SimpleJdbcInsert simpleJdbcInsert = new SimpleJdbcInsert(jdbcTemplate)
-                .withTableName("users")
-                .usingGeneratedKeyColumns("user_id");
+    @Transactional(readOnly = true)
+    public List<User> getUsersByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String sql = "SELECT * FROM users WHERE user_id = ANY(?)";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> makeUser(rs), (Object) ids.toArray(new Integer[0]));
+    }
 
+    @Override
+    @Transactional
+    public User addUser(User user) {
         Map<String, Object> userValues = new HashMap<>();
         userValues.put("name", user.getName());
         userValues.put("email", user.getEmail());
         userValues.put("login", user.getLogin());
         userValues.put("birthday", Date.valueOf(user.getBirthday()));
+        userValues.put("version", 0);
 
-        user.setId(simpleJdbcInsert.executeAndReturnKey(userValues).intValue());
+        user.setId(userInsert.executeAndReturnKey(userValues).intValue());
+        user.setVersion(0);
 
         return user;
     }
 
     @Override
+    @Transactional
     public User updateUser(User user) {
-        String sql = "UPDATE users " +
-                "SET name = ?, email = ?, login = ?, birthday = ? " +
+        String sql = "SELECT version FROM FINAL TABLE (UPDATE users " +
+                "SET name = ?, email = ?, login = ?, birthday = ?, version = version + 1 " +
                 "WHERE user_id = ?";
-        jdbcTemplate.update(sql, user.getName(), user.getEmail(),
-                user.getLogin(), Date.valueOf(user.getBirthday()), user.getId());
+        List<Integer> versions;
+
+        if (user.getVersion() == null) {
+            versions = jdbcTemplate.queryForList(sql + ")", Integer.class, user.getName(), user.getEmail(),
+                    user.getLogin(), Date.valueOf(user.getBirthday()), user.getId());
+        } else {
+            versions = jdbcTemplate.queryForList(sql + " AND version = ?)", Integer.class, user.getName(),
+                    user.getEmail(), user.getLogin(), Date.valueOf(user.getBirthday()), user.getId(),
+                    user.getVersion());
+        }
 
+        if (versions.isEmpty()) {
+            if (user.getVersion() != null && userExists(user.getId())) {
+                throw new ConflictException(String.format(
+                        "User %d was modified, version %d is outdated", user.getId(), user.getVersion()));
+            }
+            throw new NotFoundException(String.format("User %d is not found", user.getId()));
+        }
+
+        user.setVersion(versions.get(0));
         return user;
     }
 
     @Override
+    @Transactional
     public void deleteUser(int id) {
-        String sql = "DELETE FROM users WHERE user_id = ?";
-        jdbcTemplate.update(sql, id);
+        appendFriendshipsDeleted(jdbcTemplate.query("SELECT user_id, friend_id FROM OLD TABLE "
+                + "(DELETE FROM friendship WHERE user_id = ? OR friend_id = ?)", this::makeFriendship, id, id));
+        jdbcTemplate.update("DELETE FROM users WHERE user_id = ?", id);
     }
 
     @Override
+    @Transactional
+    public List<Integer> deleteUsers(List<Integer> ids, int batchSize) {
+        Integer[] idsArray = ids.toArray(new Integer[0]);
+
+        for (String sql : new String[]{
+                "SELECT user_id, friend_id FROM OLD TABLE (DELETE FROM friendship WHERE user_id = ANY(?) LIMIT ?)",
+                "SELECT user_id, friend_id FROM OLD TABLE (DELETE FROM friendship WHERE friend_id = ANY(?) LIMIT ?)"}) {
+            List<int[]> deleted;
+            do {
+                deleted = jdbcTemplate.query(sql, this::makeFriendship, idsArray, batchSize);
+                appendFriendshipsDeleted(deleted);
+            } while (deleted.size() == batchSize);
+        }
+
+        return jdbcTemplate.queryForList("SELECT user_id FROM OLD TABLE (DELETE FROM users WHERE user_id = ANY(?))",
+                Integer.class, (Object) idsArray);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<User> getUserFriends(int userId) {
         String sql = "SELECT u.* " +
                 "FROM friendship AS f " +
@@ -82,6 +148,7 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> getCommonFriends(int userId, int otherUserId) {
         String sql = "SELECT * " +
                 "FROM users " +
@@ -96,6 +163,7 @@ public class UserDbStorage implements UserStorage {
     }
 
     @Override
+    @Transactional
     public void addFriend(int userId, int friendId) {
         try {
             jdbcTemplate.update(
@@ -104,24 +172,55 @@ public class UserDbStorage implements UserStorage {
             throw new ValidationException(
                     String.format("User %d is already a friend of user %d", friendId, userId));
         }
+        changeStorage.append(Change.Entity.FRIENDSHIP, Change.Operation.CREATE, userId, friendId);
     }
 
     @Override
+    @Transactional
     public void deleteFriend(int userId, int friendId) {
-        jdbcTemplate.update(
-                "DELETE FROM friendship WHERE user_id = ? AND friend_id = ?", userId, friendId);
+        if (jdbcTemplate.update(
+                "DELETE FROM friendship WHERE user_id = ? AND friend_id = ?", userId, friendId) > 0) {
+            changeStorage.append(Change.Entity.FRIENDSHIP, Change.Operation.DELETE, userId, friendId);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean userExists(int id) {
         String sql = "SELECT user_id FROM users WHERE user_id = ?";
+        return Boolean.TRUE.equals(jdbcTemplate.query(sql, ResultSet::next, id));
+    }
 
-        try {
-            jdbcTemplate.queryForObject(sql, Integer.class, id);
-            return true;
-        } catch (EmptyResultDataAccessException e) {
-            return false;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public FriendshipGraph getFriendshipGraph() {
+        BitSet users = new BitSet();
+        jdbcTemplate.query("SELECT user_id FROM users", rs -> {
+            users.set(rs.getInt("user_id"));
+        });
+
+        int[][] rows = {new int[256], new int[256]};
+        int[] size = {0};
+        jdbcTemplate.query("SELECT user_id, friend_id FROM friendship", rs -> {
+            if (size[0] == rows[0].length) {
+                rows[0] = Arrays.copyOf(rows[0], size[0] * 2);
+                rows[1] = Arrays.copyOf(rows[1], size[0] * 2);
+            }
+            rows[0][size[0]] = rs.getInt("user_id");
+            rows[1][size[0]] = rs.getInt("friend_id");
+            size[0]++;
+        });
+
+        return FriendshipGraph.build(users, rows[0], rows[1], size[0]);
+    }
+
+    private void appendFriendshipsDeleted(List<int[]> friendships) {
+        friendships.forEach(friendship -> changeStorage.append(
+                Change.Entity.FRIENDSHIP, Change.Operation.DELETE, friendship[0], friendship[1]));
+    }
+
+    private int[] makeFriendship(ResultSet rs, int rowNum) throws SQLException {
+        return new int[]{rs.getInt("user_id"), rs.getInt("friend_id")};
     }
 
     private User makeUser(ResultSet rs) throws SQLException {
@@ -131,6 +230,7 @@ public class UserDbStorage implements UserStorage {
                 .login(rs.getString("login"))
                 .name(rs.getString("name"))
                 .birthday(rs.getDate("birthday").toLocalDate())
+                .version(rs.getInt("version"))
                 .build();
     }
 }
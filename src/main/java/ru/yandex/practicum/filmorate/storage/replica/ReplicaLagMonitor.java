@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+public class ReplicaLagMonitor {
+    private final JdbcTemplate primary;
+    private final List<JdbcTemplate> replicas;
+    private final ReplicaSelector selector;
+    private final LongSupplier clock;
+    private final boolean[] down;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource dataSource, ReplicaSelector selector) {
+        this(dataSource, selector, System::currentTimeMillis);
+    }
+
+    ReplicaLagMonitor(ReplicaRoutingDataSource dataSource, ReplicaSelector selector, LongSupplier clock) {
+        this.primary = new JdbcTemplate(dataSource.getPrimary());
+        this.replicas = dataSource.getReplicas().stream()
+                .map(JdbcTemplate::new)
+                .collect(Collectors.toList());
+        this.selector = selector;
+        this.clock = clock;
+        this.down = new boolean[replicas.size()];
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.datasource.replica.heartbeat-millis:500}")
+    public void tick() {
+        try {
+            primary.update("UPDATE replication_heartbeat SET ts = ? WHERE id = 1", clock.getAsLong());
+        } catch (DataAccessException e) {
+            log.warn("Failed to write replication heartbeat: {}", e.getMessage());
+        }
+
+        for (int i = 0; i < replicas.size(); i++) {
+            try {
+                Long heartbeat = replicas.get(i).queryForObject(
+                        "SELECT ts FROM replication_heartbeat WHERE id = 1", Long.class);
+                selector.update(i, heartbeat == null ? 0 : heartbeat);
+                if (down[i]) {
+                    down[i] = false;
+                    log.info("Replica {} is available again", i);
+                }
+            } catch (DataAccessException e) {
+                selector.markDown(i);
+                if (!down[i]) {
+                    down[i] = true;
+                    log.warn("Replica {} is unavailable: {}", i, e.getMessage());
+                }
+            }
+        }
+    }
+}
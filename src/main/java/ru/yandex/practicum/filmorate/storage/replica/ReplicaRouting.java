@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import java.util.function.Supplier;
+
+public final class ReplicaRouting {
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private ReplicaRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        State state = STATE.get();
+        state.primaryDepth++;
+        try {
+            return action.get();
+        } finally {
+            state.primaryDepth--;
+        }
+    }
+
+    public static void readAfter(long timestamp) {
+        State state = STATE.get();
+        state.readAfter = Math.max(state.readAfter, timestamp);
+    }
+
+    public static long lastWrite() {
+        return STATE.get().lastWrite;
+    }
+
+    public static void reset() {
+        STATE.remove();
+    }
+
+    public static boolean isPrimaryOnly() {
+        return STATE.get().primaryDepth > 0;
+    }
+
+    public static boolean isReadPinned() {
+        State state = STATE.get();
+        return state.primaryDepth == 0 && state.readAfter > 0;
+    }
+
+    static long getReadAfter() {
+        return STATE.get().readAfter;
+    }
+
+    static void recordWrite(long timestamp) {
+        State state = STATE.get();
+        state.lastWrite = Math.max(state.lastWrite, timestamp);
+        state.readAfter = Math.max(state.readAfter, timestamp);
+    }
+
+    private static class State {
+        private int primaryDepth;
+        private long readAfter;
+        private long lastWrite;
+    }
+}
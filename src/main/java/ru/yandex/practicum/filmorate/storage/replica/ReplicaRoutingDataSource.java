@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ru.yandex.practicum.filmorate.util.TransactionHooks.afterCommit;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+    private static final String PRIMARY = "primary";
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaSelector selector;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaSelector selector) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.selector = selector;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (ReplicaRouting.isPrimaryOnly()) {
+                return PRIMARY;
+            }
+
+            int replica = selector.select(ReplicaRouting.getReadAfter());
+            return replica < 0 ? PRIMARY : replica;
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            afterCommit(() -> ReplicaRouting.recordWrite(System.currentTimeMillis()));
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource replica : replicas) {
+            close(replica);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
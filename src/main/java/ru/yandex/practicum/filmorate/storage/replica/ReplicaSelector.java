@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+public class ReplicaSelector {
+    private static final long DOWN = Long.MIN_VALUE;
+    private final AtomicLongArray appliedUpTo;
+    private final AtomicInteger next = new AtomicInteger();
+    private final long maxLagMillis;
+    private final LongSupplier clock;
+
+    public ReplicaSelector(int replicas, long maxLagMillis) {
+        this(replicas, maxLagMillis, System::currentTimeMillis);
+    }
+
+    ReplicaSelector(int replicas, long maxLagMillis, LongSupplier clock) {
+        this.appliedUpTo = new AtomicLongArray(replicas);
+        this.maxLagMillis = maxLagMillis;
+        this.clock = clock;
+
+        for (int i = 0; i < replicas; i++) {
+            appliedUpTo.set(i, DOWN);
+        }
+    }
+
+    public int select(long readAfter) {
+        int replicas = appliedUpTo.length();
+        long freshAfter = clock.getAsLong() - maxLagMillis;
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+
+        for (int i = 0; i < replicas; i++) {
+            int replica = (start + i) % replicas;
+            long applied = appliedUpTo.get(replica);
+
+            if (applied != DOWN && applied >= readAfter && applied >= freshAfter) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    public void update(int replica, long heartbeat) {
+        appliedUpTo.set(replica, heartbeat);
+    }
+
+    public void markDown(int replica) {
+        appliedUpTo.set(replica, DOWN);
+    }
+
+    public long getLagMillis(int replica) {
+        long applied = appliedUpTo.get(replica);
+        return applied == DOWN ? -1 : Math.max(0, clock.getAsLong() - applied);
+    }
+
+    public int size() {
+        return appliedUpTo.length();
+    }
+}
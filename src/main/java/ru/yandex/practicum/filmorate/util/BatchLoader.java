@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+public class BatchLoader<V> {
+    private final Function<List<Integer>, List<V>> loader;
+    private final ToIntFunction<V> idExtractor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<Optional<V>>> pending = new HashMap<>();
+
+    public BatchLoader(Function<List<Integer>, List<V>> loader, ToIntFunction<V> idExtractor,
+                       long windowNanos, int maxBatchSize) {
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+        this.windowNanos = windowNanos;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public Optional<V> load(int id) {
+        CompletableFuture<Optional<V>> future;
+        boolean leader = false;
+        boolean full = false;
+
+        synchronized (lock) {
+            future = pending.get(id);
+
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(id, future);
+                leader = pending.size() == 1;
+                full = pending.size() >= maxBatchSize;
+            }
+        }
+
+        if (full) {
+            dispatch();
+        } else if (leader) {
+            if (windowNanos > 0) {
+                LockSupport.parkNanos(windowNanos);
+            }
+            dispatch();
+        }
+
+        return SingleFlight.join(future);
+    }
+
+    private void dispatch() {
+        Map<Integer, CompletableFuture<Optional<V>>> batch;
+
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+
+        try {
+            Map<Integer, V> loaded = new HashMap<>();
+            for (V value : loader.apply(new ArrayList<>(batch.keySet()))) {
+                loaded.put(idExtractor.applyAsInt(value), value);
+            }
+            batch.forEach((id, future) -> future.complete(Optional.ofNullable(loaded.get(id))));
+        } catch (RuntimeException e) {
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.util;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String format(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    public static Integer parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+
+        try {
+            return Integer.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("Wrong If-Match header %s", ifMatch));
+        }
+    }
+}
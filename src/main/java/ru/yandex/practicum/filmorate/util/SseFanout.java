@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+public class SseFanout {
+    private final String name;
+    private final long streamTimeoutMillis;
+    private final long slowConsumerMillis;
+    private final Queue<Subscription> subscriptions = new ConcurrentLinkedQueue<>();
+    private final ExecutorService senders;
+
+    public SseFanout(String name, int senderThreads, long streamTimeoutMillis, long slowConsumerMillis) {
+        this.name = name;
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        this.slowConsumerMillis = slowConsumerMillis;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Subscription subscribe(Sender sender) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscription subscription = new Subscription(emitter, sender);
+
+        subscriptions.add(subscription);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriptions.remove(subscription));
+        return subscription;
+    }
+
+    public boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    public void offerAll() {
+        long now = System.currentTimeMillis();
+
+        for (Subscription subscription : subscriptions) {
+            long sendingSince = subscription.sendingSince;
+
+            if (sendingSince != 0 && now - sendingSince > slowConsumerMillis) {
+                log.debug("{} subscriber dropped as a slow consumer", name);
+                subscriptions.remove(subscription);
+                subscription.emitter.complete();
+            } else {
+                subscription.offer();
+            }
+        }
+    }
+
+    public void shutdown() {
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    @FunctionalInterface
+    public interface Sender {
+        void sendPending(Subscription subscription) throws IOException;
+    }
+
+    public class Subscription {
+        private final SseEmitter emitter;
+        private final Sender sender;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean pending;
+        private volatile long sendingSince;
+
+        private Subscription(SseEmitter emitter, Sender sender) {
+            this.emitter = emitter;
+            this.sender = sender;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        public void offer() {
+            pending = true;
+            if (sending.compareAndSet(false, true)) {
+                sendingSince = System.currentTimeMillis();
+                senders.execute(this::drain);
+            }
+        }
+
+        public void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendingSince = System.currentTimeMillis();
+            emitter.send(event);
+        }
+
+        private void drain() {
+            do {
+                try {
+                    while (pending) {
+                        pending = false;
+                        sender.sendPending(this);
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    subscriptions.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                } finally {
+                    sendingSince = 0;
+                    sending.set(false);
+                }
+            } while (pending && sending.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+public class TokenBucketLimiter {
+    private static final int STRIPES = 16;
+    private static final int MAX_PROBES = 8;
+    private static final long MILLI_TOKENS = 1000;
+    private static final int TOKENS_BITS = 24;
+    private static final long TOKENS_MASK = (1L << TOKENS_BITS) - 1;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long burstMilliTokens;
+    private final double milliTokensPerMilli;
+    private final LongSupplier clock;
+    private final long start;
+
+    public TokenBucketLimiter(double permitsPerSecond, int burst, int capacity) {
+        this(permitsPerSecond, burst, capacity, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double permitsPerSecond, int burst, int capacity, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst <= 0 || burst * MILLI_TOKENS > TOKENS_MASK) {
+            throw new IllegalArgumentException("Wrong token bucket rate or burst");
+        }
+
+        int stripeCapacity = Integer.highestOneBit(Math.max(MAX_PROBES, capacity / STRIPES - 1) << 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+        this.burstMilliTokens = burst * MILLI_TOKENS;
+        this.milliTokensPerMilli = permitsPerSecond;
+        this.clock = clock;
+        this.start = clock.getAsLong();
+    }
+
+    public boolean tryAcquire(long key) {
+        if (key == 0) {
+            key = Long.MIN_VALUE;
+        }
+
+        long now = (clock.getAsLong() - start) / 1_000_000 + 1;
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 60) & (STRIPES - 1)];
+        int mask = stripe.keys.length() - 1;
+        int victim = -1;
+        long victimTime = Long.MAX_VALUE;
+
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (int) (hash + probe) & mask;
+            long slotKey = stripe.keys.get(slot);
+
+            if (slotKey == key) {
+                return consume(stripe.states, slot, now);
+            }
+            if (slotKey == 0 && stripe.keys.compareAndSet(slot, 0, key)) {
+                return consume(stripe.states, slot, now);
+            }
+
+            long slotTime = stripe.states.get(slot) >>> TOKENS_BITS;
+            if (slotTime < victimTime) {
+                victim = slot;
+                victimTime = slotTime;
+            }
+        }
+
+        stripe.states.set(victim, 0);
+        stripe.keys.set(victim, key);
+        return consume(stripe.states, victim, now);
+    }
+
+    private boolean consume(AtomicLongArray states, int slot, long now) {
+        while (true) {
+            long state = states.get(slot);
+            long time = state >>> TOKENS_BITS;
+            long tokens = time == 0 ? burstMilliTokens : state & TOKENS_MASK;
+
+            if (now > time) {
+                tokens = Math.min(burstMilliTokens, tokens + (long) ((now - time) * milliTokensPerMilli));
+            }
+            if (tokens < MILLI_TOKENS) {
+                return false;
+            }
+            if (states.compareAndSet(slot, state, Math.max(now, time) << TOKENS_BITS | tokens - MILLI_TOKENS)) {
+                return true;
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static class Stripe {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray states;
+
+        private Stripe(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.states = new AtomicLongArray(capacity);
+        }
+    }
+}
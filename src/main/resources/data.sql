@@ -37,3 +37,14 @@ VALUES ('NC-17');
 
 
 
+
+
+INSERT INTO changes_seq (id, seq)
+SELECT 1, COALESCE(MAX(seq), 0) FROM changes
+WHERE NOT EXISTS (SELECT 1 FROM changes_seq);
+
+MERGE INTO changes_pruned KEY (id)
+VALUES (1, 0);
+
+MERGE INTO replication_heartbeat KEY (id)
+VALUES (1, 0);
\ No newline at end of file
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS films_likes (
+    film_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS unique_films_likes ON films_likes(film_id, user_id);
+
+CREATE INDEX IF NOT EXISTS films_likes_user_film ON films_likes(user_id, film_id);
@@ -9,7 +9,8 @@ CREATE TABLE IF NOT EXISTS films (
     description VARCHAR(200),
     release_date DATE NOT NULL,
     duration INTEGER,
-    mpa_id INTEGER NOT NULL REFERENCES mpa (mpa_id)
+    mpa_id INTEGER NOT NULL REFERENCES mpa (mpa_id),
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS genres (
@@ -29,7 +30,8 @@ CREATE TABLE IF NOT EXISTS users (
     name VARCHAR,
     email VARCHAR NOT NULL,
     login VARCHAR NOT NULL,
-    birthday DATE NOT NULL
+    birthday DATE NOT NULL,
+    version INTEGER NOT NULL DEFAULT 0
 );
   
 CREATE TABLE IF NOT EXISTS friendship (
@@ -44,4 +46,36 @@ CREATE TABLE IF NOT EXISTS films_likes (
     user_id INTEGER REFERENCES users (user_id) ON DELETE CASCADE
 );
 
-CREATE UNIQUE INDEX unique_films_likes ON films_likes(film_id, user_id);
\ No newline at end of file
+CREATE UNIQUE INDEX unique_films_likes ON films_likes(film_id, user_id);
+
+CREATE TABLE IF NOT EXISTS changes (
+    seq BIGINT PRIMARY KEY,
+    entity VARCHAR(16) NOT NULL,
+    operation VARCHAR(16) NOT NULL,
+    entity_id INTEGER NOT NULL,
+    related_id INTEGER,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS changes_created_at ON changes(created_at);
+
+CREATE TABLE IF NOT EXISTS changes_seq (
+    id INTEGER PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS changes_pruned (
+    id INTEGER PRIMARY KEY,
+    seq BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS films_likes_user_film ON films_likes(user_id, film_id);
+
+CREATE INDEX IF NOT EXISTS friendship_friend_id ON friendship(friend_id);
+
+CREATE INDEX IF NOT EXISTS films_genres_genre_id ON films_genres(genre_id);
+
+CREATE TABLE IF NOT EXISTS replication_heartbeat (
+    id INTEGER PRIMARY KEY,
+    ts BIGINT NOT NULL
+);
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.json.ModelJsonModule;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.BulkDeleteService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FilmControllerTest {
+    private static final String FILM_JSON = "{\"id\":1,\"name\":\"film1\",\"releaseDate\":\"2000-01-01\","
+            + "\"duration\":90,\"mpa\":{\"id\":1}}";
+    FilmService filmService;
+    MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        filmService = mock(FilmService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FilmController(filmService, mock(BulkDeleteService.class)))
+                .setControllerAdvice(new ErrorHandler())
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json()
+                        .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT), new ModelJsonModule())
+                        .build()))
+                .build();
+    }
+
+    @Test
+    void eTagShouldRoundTripThroughIfMatch() throws Exception {
+        when(filmService.getFilmById(1, null)).thenReturn(film(3));
+        when(filmService.updateFilm(any())).thenAnswer(invocation -> {
+            if (!Integer.valueOf(3).equals(invocation.<Film>getArgument(0).getVersion())) {
+                throw new ConflictException("Film 1 was modified");
+            }
+            return film(4);
+        });
+
+        String eTag = mockMvc.perform(get("/films/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(put("/films").header("If-Match", eTag)
+                        .contentType(MediaType.APPLICATION_JSON).content(FILM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+        mockMvc.perform(put("/films").header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(FILM_JSON))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createShouldReturnETag() throws Exception {
+        when(filmService.addFilm(any())).thenReturn(film(0));
+
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""));
+    }
+
+    private static Film film(int version) {
+        return Film.builder().id(1).name("film1").releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90).mpa(new Mpa(1, "G")).version(version).build();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.FriendshipStats;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FriendshipGraphAnalyzerTest {
+    @Test
+    void analyzeShouldComputeReciprocityComponentsAndInfluencers() {
+        BitSet users = new BitSet();
+        users.set(1, 8);
+        int[] userIds = {1, 2, 3, 3, 4, 5};
+        int[] friendIds = {2, 1, 2, 4, 2, 6};
+        FriendshipGraph graph = FriendshipGraph.build(users, userIds, friendIds, userIds.length);
+
+        assertTrue(graph.hasEdge(3, 4));
+        assertFalse(graph.hasEdge(4, 3));
+
+        FriendshipStats stats = new FriendshipGraphAnalyzer(new ForkJoinPool(4)).analyze(graph, 2);
+
+        assertEquals(7, stats.getUsersCount());
+        assertEquals(6, stats.getFriendshipsCount());
+        assertEquals(1, stats.getMutualPairsCount());
+        assertEquals(2.0 / 6, stats.getReciprocity(), 1e-9);
+        assertEquals(3, stats.getComponentsCount());
+        assertEquals(4, stats.getLargestComponentSize());
+        assertEquals(Map.of(0, 2, 1, 4, 2, 1), stats.getDegreeDistribution());
+        assertEquals(List.of(2, 1), stats.getTopInfluencers().stream()
+                .map(FriendshipStats.Influencer::getUserId)
+                .collect(Collectors.toList()));
+        assertEquals(3, stats.getTopInfluencers().get(0).getFollowers());
+    }
+}
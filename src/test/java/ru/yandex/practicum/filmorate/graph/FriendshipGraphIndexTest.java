@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class FriendshipGraphIndexTest {
+    FriendshipGraphIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        int[] userIds = {1, 2, 3, 4, 1, 6};
+        int[] friendIds = {2, 3, 4, 5, 6, 7};
+        index = new FriendshipGraphIndex();
+        index.rebuild(FriendshipGraph.build(new BitSet(), userIds, friendIds, userIds.length));
+    }
+
+    @Test
+    void shortestPathShouldFollowFriendEdgesWithinHopLimit() {
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, index.shortestPath(1, 5, 4));
+        assertArrayEquals(new int[0], index.shortestPath(1, 5, 3));
+        assertArrayEquals(new int[0], index.shortestPath(5, 1, 10));
+        assertArrayEquals(new int[]{1, 6, 7}, index.shortestPath(1, 7, 10));
+        assertArrayEquals(new int[]{3}, index.shortestPath(3, 3, 1));
+    }
+
+    @Test
+    void shortestPathShouldSeeOverlayUpdates() {
+        index.addEdge(6, 5);
+        index.addEdge(5, 100);
+
+        assertArrayEquals(new int[]{1, 6, 5, 100}, index.shortestPath(1, 100, 10));
+
+        index.removeEdge(6, 5);
+
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 100}, index.shortestPath(1, 100, 10));
+
+        index.removeUser(3);
+
+        assertArrayEquals(new int[0], index.shortestPath(1, 100, 10));
+
+        index.replaceFriends(2, new int[]{4});
+
+        assertArrayEquals(new int[]{1, 2, 4, 5, 100}, index.shortestPath(1, 100, 10));
+
+        for (int userId = 200; userId < 1400; userId++) {
+            index.addEdge(userId, userId + 1);
+        }
+        index.addEdge(100, 200);
+
+        assertArrayEquals(new int[]{1, 2, 4, 5, 100, 200, 201}, index.shortestPath(1, 201, 10));
+    }
+}
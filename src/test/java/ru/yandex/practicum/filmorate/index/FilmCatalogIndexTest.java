@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FilmCatalogIndexTest {
+    FilmCatalogIndex filmCatalogIndex;
+    final Genre comedy = new Genre(1, "Комедия");
+    final Genre drama = new Genre(2, "Драма");
+    final Genre action = new Genre(6, "Боевик");
+
+    @BeforeEach
+    public void setUp() {
+        filmCatalogIndex = new FilmCatalogIndex();
+        filmCatalogIndex.rebuild(List.of(
+                makeFilm(1, 1, List.of(comedy, drama), LocalDate.of(2000, 1, 1), 90),
+                makeFilm(2, 2, List.of(action), LocalDate.of(1990, 1, 1), 120),
+                makeFilm(3, 1, List.of(drama), LocalDate.of(2010, 1, 1), 100),
+                makeFilm(4, 3, null, LocalDate.of(2005, 1, 1), 80)));
+    }
+
+    @Test
+    void queryShouldCombineFilters() {
+        assertArrayEquals(new int[]{1, 3}, query(FilmFilter.builder().genres(List.of(2))));
+        assertArrayEquals(new int[]{1, 2, 3}, query(FilmFilter.builder().genres(List.of(2, 6))));
+        assertArrayEquals(new int[]{3}, query(FilmFilter.builder().genres(List.of(2)).mpa(List.of(1))
+                .releasedAfter(LocalDate.of(2000, 1, 1))));
+        assertArrayEquals(new int[]{2, 3}, query(FilmFilter.builder().minDuration(100)));
+        assertArrayEquals(new int[0], query(FilmFilter.builder().genres(List.of(5))));
+    }
+
+    @Test
+    void querySortShouldUsePrecomputedOrderings() {
+        assertArrayEquals(new int[]{2, 1, 4, 3}, query(FilmFilter.builder().sort("releaseDate")));
+        assertArrayEquals(new int[]{2, 3, 1}, query(FilmFilter.builder().mpa(List.of(1, 2)).sort("-duration")));
+        assertThrows(ValidationException.class, () -> query(FilmFilter.builder().sort("name")));
+    }
+
+    @Test
+    void indexAndRemoveShouldUpdateBitmaps() {
+        filmCatalogIndex.index(makeFilm(2, 2, List.of(drama), LocalDate.of(2020, 1, 1), 60));
+        filmCatalogIndex.remove(3);
+
+        assertArrayEquals(new int[]{1, 2}, query(FilmFilter.builder().genres(List.of(2))));
+        assertArrayEquals(new int[0], query(FilmFilter.builder().genres(List.of(6))));
+        assertArrayEquals(new int[]{2, 4, 1}, query(FilmFilter.builder().sort("-releaseDate")));
+    }
+
+    private int[] query(FilmFilter.FilmFilterBuilder filter) {
+        return filmCatalogIndex.query(filter.build());
+    }
+
+    private Film makeFilm(int id, int mpaId, List<Genre> genres, LocalDate releaseDate, int duration) {
+        return Film.builder().id(id).name("film" + id).mpa(new Mpa(mpaId, null))
+                .genres(genres).releaseDate(releaseDate).duration(duration).build();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilmGenresIndexTest {
+    final Genre comedy = new Genre(1, "Комедия");
+    final Genre drama = new Genre(2, "Драма");
+    final Genre animation = new Genre(3, "Мультфильм");
+    final Genre[] dictionary = {null, comedy, drama, animation};
+
+    @Test
+    void buildShouldGroupAndSortGenresByFilm() {
+        FilmGenresIndex index = FilmGenresIndex.build(dictionary,
+                new int[]{3, 1, 3, 1}, new int[]{2, 3, 1, 1}, 4);
+
+        assertEquals(List.of(comedy, animation), index.get(1));
+        assertEquals(Collections.emptyList(), index.get(2));
+        assertEquals(List.of(comedy, drama), index.get(3));
+        assertEquals(Collections.emptyList(), index.get(100));
+    }
+
+    @Test
+    void putShouldSurviveCompaction() {
+        FilmGenresIndex index = FilmGenresIndex.build(dictionary, new int[]{1}, new int[]{2}, 1);
+
+        for (int filmId = 2; filmId <= 2000; filmId++) {
+            index.put(filmId, new int[]{filmId % 3 + 1, 1});
+        }
+        index.put(1, new int[0]);
+
+        assertEquals(Collections.emptyList(), index.get(1));
+        assertEquals(List.of(comedy), index.get(3));
+        assertEquals(List.of(comedy, drama), index.get(1000));
+        assertEquals(List.of(comedy, animation), index.get(2000));
+    }
+}
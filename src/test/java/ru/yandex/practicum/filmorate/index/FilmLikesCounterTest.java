@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class FilmLikesCounterTest {
+    @Test
+    void topShouldRankByLikesThenById() {
+        FilmLikesCounter counter = new FilmLikesCounter();
+        counter.reset(Map.of(1, 2, 2, 5, 3, 2, 4, 1, 5, 7));
+        long modCount = counter.getModCount();
+
+        FilmLikesCounter.Ranking ranking = counter.top(3);
+
+        assertEquals(3, ranking.size());
+        assertEquals(5, ranking.getFilmId(0));
+        assertEquals(7, ranking.getLikes(0));
+        assertEquals(2, ranking.getFilmId(1));
+        assertEquals(1, ranking.getFilmId(2));
+        assertEquals(2, ranking.getLikes(2));
+
+        counter.increment(3);
+
+        assertNotEquals(modCount, counter.getModCount());
+        assertEquals(3, counter.top(3).getFilmId(2));
+        assertEquals(5, counter.top(10).size());
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class FilmSearchIndexTest {
+    FilmSearchIndex filmSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        filmSearchIndex = new FilmSearchIndex();
+        filmSearchIndex.rebuild(List.of(
+                Film.builder().id(1).name("The Matrix").description("Hacker learns the truth").build(),
+                Film.builder().id(2).name("Matrix Reloaded").description("Neo returns").build(),
+                Film.builder().id(3).name("Терминатор").description("Восстание машин").build()));
+    }
+
+    @Test
+    void searchShouldMatchAllTermsByPrefixIgnoringCase() {
+        assertArrayEquals(new int[]{1, 2}, filmSearchIndex.search("matr"));
+        assertArrayEquals(new int[]{2}, filmSearchIndex.search("MATRIX neo"));
+        assertArrayEquals(new int[]{3}, filmSearchIndex.search("терм"));
+        assertArrayEquals(new int[0], filmSearchIndex.search("matrix terminator"));
+        assertArrayEquals(new int[0], filmSearchIndex.search("  ,. "));
+    }
+
+    @Test
+    void indexAndRemoveShouldUpdateIndexIncrementally() {
+        filmSearchIndex.index(Film.builder().id(2).name("Speed").description("Bus").build());
+        filmSearchIndex.index(Film.builder().id(4).name("Matrix Resurrections").build());
+
+        assertArrayEquals(new int[]{1, 4}, filmSearchIndex.search("matrix"));
+        assertArrayEquals(new int[]{2}, filmSearchIndex.search("speed"));
+
+        filmSearchIndex.remove(1);
+
+        assertArrayEquals(new int[]{4}, filmSearchIndex.search("matrix"));
+        assertArrayEquals(new int[0], filmSearchIndex.search("hacker"));
+    }
+}
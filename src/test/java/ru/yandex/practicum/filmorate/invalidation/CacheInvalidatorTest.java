@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheInvalidatorTest {
+    @Test
+    void publishShouldReachOtherNodesAndSkipOutdatedVersions() {
+        LoopbackInvalidationBus bus = new LoopbackInvalidationBus();
+        CacheInvalidator node1 = new CacheInvalidator(bus);
+        CacheInvalidator node2 = new CacheInvalidator(bus);
+        List<String> received1 = new ArrayList<>();
+        List<String> received2 = new ArrayList<>();
+        node1.subscribeEvictions(change -> received1.add(change.getType() + ":" + change.getVersion()));
+        node2.subscribeEvictions(change -> received2.add(change.getType() + ":" + change.getVersion()));
+
+        node1.publish(EntityChange.Type.FILM_UPDATED, 1, 2);
+        node1.publish(EntityChange.Type.FILM_UPDATED, 1, 1);
+        node1.publish(EntityChange.Type.FILM_LIKES_CHANGED, 1, 0);
+        node1.publish(EntityChange.Type.FILM_LIKES_CHANGED, 1, 0);
+        node1.publish(EntityChange.Type.FILM_DELETED, 1, 0);
+        node1.publish(EntityChange.Type.FILM_UPDATED, 1, 3);
+
+        assertEquals(List.of(), received1);
+        assertEquals(List.of("FILM_UPDATED:2", "FILM_LIKES_CHANGED:0", "FILM_LIKES_CHANGED:0", "FILM_DELETED:0"),
+                received2);
+    }
+
+    @Test
+    void encodeShouldRoundTrip() {
+        EntityChange change = new EntityChange(EntityChange.Type.USER_UPDATED, 42, 7, -5);
+        byte[] data = change.encode();
+
+        assertEquals(EntityChange.ENCODED_SIZE, data.length);
+        assertEquals(change, EntityChange.decode(data, 0, data.length));
+    }
+}
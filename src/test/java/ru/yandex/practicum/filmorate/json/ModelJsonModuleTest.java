@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ModelJsonModuleTest {
+    private final ObjectMapper reflective = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper fast = reflective.copy().registerModule(new ModelJsonModule());
+
+    @Test
+    void serializersShouldWriteSameJsonAsReflectiveMapper() throws IOException {
+        List<Object> values = List.of(
+                Film.builder().id(1).name("film \"1\"").description("ąść")
+                        .releaseDate(LocalDate.of(895, 12, 28)).duration(90)
+                        .mpa(new Mpa(1, "G")).genres(Arrays.asList(new Genre(1, "Комедия"), new Genre(2, null)))
+                        .likesCount(7).liked(true).version(3).build(),
+                Film.builder().id(2).name("film2").releaseDate(LocalDate.of(2001, 1, 1)).build(),
+                Film.builder().id(3).name("film3").releaseDate(LocalDate.of(12345, 6, 7))
+                        .genres(List.of()).liked(false).build(),
+                User.builder().id(1).name("user").email("user@user.com").login("login")
+                        .birthday(LocalDate.of(2000, 10, 9)).version(0).build(),
+                User.builder().id(2).build(),
+                List.of(new Mpa(5, "NC-17"), new Genre(6, "Боевик")));
+
+        for (Object value : values) {
+            assertEquals(reflective.writeValueAsString(value), fast.writeValueAsString(value));
+        }
+    }
+
+    @Test
+    void serializersShouldWriteSmileReadableByReflectiveMapper() throws IOException {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory())
+                .registerModule(new JavaTimeModule())
+                .registerModule(new ModelJsonModule());
+        Film film = Film.builder().id(1).name("film1").description("description")
+                .releaseDate(LocalDate.of(2000, 1, 1)).duration(90)
+                .mpa(new Mpa(1, "G")).genres(List.of(new Genre(1, "Комедия"))).version(0).build();
+
+        byte[] encoded = smile.writeValueAsBytes(film);
+
+        assertEquals(reflective.readTree(reflective.writeValueAsString(film)), smile.readTree(encoded));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.invalidation.CacheInvalidator;
+import ru.yandex.practicum.filmorate.invalidation.LoopbackInvalidationBus;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class CachingFilmStorageTest {
+    EmbeddedDatabase embeddedDatabase;
+    JdbcTemplate jdbcTemplate;
+    CachingFilmStorage cachingFilmStorage;
+
+    @BeforeEach
+    public void setUp() {
+        embeddedDatabase = new EmbeddedDatabaseBuilder()
+                .addDefaultScripts()
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        jdbcTemplate = new JdbcTemplate(embeddedDatabase);
+        cachingFilmStorage = new CachingFilmStorage(
+                new CoalescingFilmStorage(new FilmDbStorage(jdbcTemplate, new ChangeDbStorage(jdbcTemplate),
+                        new MpaDbStorage(jdbcTemplate), new LikesShards(jdbcTemplate)), 0),
+                new SimpleMeterRegistry(), new CacheInvalidator(new LoopbackInvalidationBus()), 1024 * 1024,
+                Duration.ofMinutes(10));
+
+        jdbcTemplate.update("insert into films (name, release_date, duration, mpa_id) values (?, ?, ?, ?)",
+                "film1", Date.valueOf("2000-01-01"), 90, 1);
+    }
+
+    @AfterEach
+    public void shutDown() {
+        embeddedDatabase.shutdown();
+    }
+
+    @Test
+    void getFilmByIdShouldServeCopiesFromCacheUntilUpdate() {
+        Film cached = cachingFilmStorage.getFilmById(1).orElseThrow();
+        jdbcTemplate.update("update films set name = ? where film_id = ?", "changed outside", 1);
+
+        assertEquals("film1", cachingFilmStorage.getFilmById(1).orElseThrow().getName());
+        assertNotSame(cached, cachingFilmStorage.getFilmById(1).orElseThrow());
+
+        cached.setName("film1Upd");
+        cachingFilmStorage.updateFilm(cached, false);
+
+        assertEquals("film1Upd", cachingFilmStorage.getFilmById(1).orElseThrow().getName());
+
+        cachingFilmStorage.deleteFilm(1);
+
+        assertEquals(Optional.empty(), cachingFilmStorage.getFilmById(1));
+    }
+}
@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.model.Change;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChangeDbStorageTest {
+    EmbeddedDatabase embeddedDatabase;
+    JdbcTemplate jdbcTemplate;
+    ChangeDbStorage changeDbStorage;
+    FilmDbStorage filmDbStorage;
+    UserDbStorage userDbStorage;
+
+    @BeforeEach
+    public void setUp() {
+        embeddedDatabase = new EmbeddedDatabaseBuilder()
+                .addDefaultScripts()
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        jdbcTemplate = new JdbcTemplate(embeddedDatabase);
+        changeDbStorage = new ChangeDbStorage(jdbcTemplate);
+        filmDbStorage = new FilmDbStorage(jdbcTemplate, changeDbStorage, new MpaDbStorage(jdbcTemplate),
+                new LikesShards(jdbcTemplate));
+        userDbStorage = new UserDbStorage(jdbcTemplate, changeDbStorage);
+
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user1", "user1login", "user1@user.com", Date.valueOf("2000-01-01"));
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user2", "user2login", "user2@user.com", Date.valueOf("2000-01-01"));
+        jdbcTemplate.update("insert into films (name, release_date, duration, mpa_id) values (?, ?, ?, ?)",
+                "film1", Date.valueOf("2000-01-01"), 90, 1);
+    }
+
+    @AfterEach
+    public void shutDown() {
+        embeddedDatabase.shutdown();
+    }
+
+    @Test
+    void writesShouldAppendSequencedChanges() {
+        filmDbStorage.addLike(1, 1);
+        userDbStorage.addFriend(1, 2);
+        filmDbStorage.deleteLike(1, 1);
+        filmDbStorage.deleteLike(1, 1);
+        userDbStorage.deleteFriend(1, 2);
+
+        List<Change> changes = changeDbStorage.getChanges(0, 100);
+
+        assertEquals(List.of("LIKE CREATE 1 1", "FRIENDSHIP CREATE 1 2", "LIKE DELETE 1 1", "FRIENDSHIP DELETE 1 2"),
+                changes.stream()
+                        .map(change -> String.format("%s %s %d %d", change.getEntity(), change.getOperation(),
+                                change.getEntityId(), change.getRelatedId()))
+                        .collect(Collectors.toList()));
+        assertEquals(List.of(3L, 4L), changeDbStorage.getChanges(2, 100).stream()
+                .map(Change::getSeq)
+                .collect(Collectors.toList()));
+        assertEquals(2, changeDbStorage.getChanges(0, 2).size());
+    }
+
+    @Test
+    void deletingUserShouldAppendRemovedLikesAndFriendships() {
+        filmDbStorage.addLike(1, 1);
+        userDbStorage.addFriend(1, 2);
+        userDbStorage.addFriend(2, 1);
+
+        filmDbStorage.deleteLikesByUsers(List.of(1), 100);
+        userDbStorage.deleteUser(1);
+
+        assertEquals(List.of("FRIENDSHIP DELETE 1 2", "FRIENDSHIP DELETE 2 1", "LIKE DELETE 1 1"),
+                changeDbStorage.getChanges(3, 100).stream()
+                        .map(change -> String.format("%s %s %d %d", change.getEntity(), change.getOperation(),
+                                change.getEntityId(), change.getRelatedId()))
+                        .sorted()
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void deletingUsersShouldAppendRemovedFriendships() {
+        userDbStorage.addFriend(1, 2);
+        userDbStorage.addFriend(2, 1);
+
+        assertEquals(List.of(1), userDbStorage.deleteUsers(List.of(1), 1));
+        assertEquals(List.of("FRIENDSHIP DELETE 1 2", "FRIENDSHIP DELETE 2 1"),
+                changeDbStorage.getChanges(2, 100).stream()
+                        .map(change -> String.format("%s %s %d %d", change.getEntity(), change.getOperation(),
+                                change.getEntityId(), change.getRelatedId()))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    void changesShouldBecomeVisibleInCommitOrder() {
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(embeddedDatabase));
+        List<CompletableFuture<Void>> concurrent = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            changeDbStorage.append(Change.Entity.FILM, Change.Operation.UPDATE, 1, null);
+            concurrent.add(CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(inner ->
+                    changeDbStorage.append(Change.Entity.FILM, Change.Operation.DELETE, 1, null))));
+
+            assertEquals(List.of(), CompletableFuture.supplyAsync(() -> changeDbStorage.getChanges(0, 100)).join());
+            assertFalse(concurrent.get(0).isDone());
+        });
+        concurrent.get(0).join();
+
+        assertEquals(List.of("1 UPDATE", "2 DELETE"), changeDbStorage.getChanges(0, 100).stream()
+                .map(change -> change.getSeq() + " " + change.getOperation())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void rolledBackChangeShouldReleaseSeq() {
+        TransactionTemplate transactionTemplate =
+                new TransactionTemplate(new DataSourceTransactionManager(embeddedDatabase));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            changeDbStorage.append(Change.Entity.FILM, Change.Operation.UPDATE, 1, null);
+            status.setRollbackOnly();
+        });
+        changeDbStorage.append(Change.Entity.FILM, Change.Operation.DELETE, 1, null);
+
+        assertEquals(List.of(1L), changeDbStorage.getChanges(0, 100).stream()
+                .map(Change::getSeq)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void pruneChangesShouldDeleteOldChangesInChunks() {
+        for (int i = 0; i < 5; i++) {
+            changeDbStorage.append(Change.Entity.FILM, Change.Operation.UPDATE, 1, null);
+        }
+
+        assertEquals(0, changeDbStorage.pruneChanges(LocalDateTime.now().minusHours(1), 2));
+        assertEquals(5, changeDbStorage.pruneChanges(LocalDateTime.now().plusSeconds(1), 2));
+        assertEquals(List.of(), changeDbStorage.getChanges(0, 100));
+        assertEquals(5, new ChangeDbStorage(jdbcTemplate).getPrunedUpTo());
+        assertEquals(5, changeDbStorage.pruneChanges(LocalDateTime.now().plusSeconds(1), 2));
+
+        changeDbStorage.append(Change.Entity.FILM, Change.Operation.DELETE, 1, null);
+
+        assertNull(changeDbStorage.getChanges(5, 100).get(0).getRelatedId());
+    }
+}
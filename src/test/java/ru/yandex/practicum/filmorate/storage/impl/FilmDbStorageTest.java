@@ -7,6 +7,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
@@ -14,9 +16,15 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FilmDbStorageTest {
@@ -34,7 +42,8 @@ class FilmDbStorageTest {
                 .setType(EmbeddedDatabaseType.H2)
                 .build();
         jdbcTemplate = new JdbcTemplate(embeddedDatabase);
-        filmDbStorage = new FilmDbStorage(jdbcTemplate);
+        filmDbStorage = new FilmDbStorage(jdbcTemplate, new ChangeDbStorage(jdbcTemplate),
+                new MpaDbStorage(jdbcTemplate), new LikesShards(jdbcTemplate));
 
         jdbcTemplate.update("insert into films (name, release_date, duration, mpa_id) values (?, ?, ?, ?)",
                 "film1", Date.valueOf("2000-01-01"), 90, 1);
@@ -73,11 +82,12 @@ class FilmDbStorageTest {
     void getFilmByIdShouldReturnFilm() {
         List<Film> expected = List.of(film1, film2, film3);
         List<Film> actual = List.of(
-                filmDbStorage.getFilmById(1),
-                filmDbStorage.getFilmById(2),
-                filmDbStorage.getFilmById(3));
+                filmDbStorage.getFilmById(1).orElseThrow(),
+                filmDbStorage.getFilmById(2).orElseThrow(),
+                filmDbStorage.getFilmById(3).orElseThrow());
 
         assertEquals(expected, actual);
+        assertEquals(Optional.empty(), filmDbStorage.getFilmById(999));
     }
 
     @Test
@@ -87,7 +97,7 @@ class FilmDbStorageTest {
                 .duration(120).mpa(new Mpa(1, "G")).build();
 
         filmDbStorage.addFilm(film4);
-        assertEquals(film4, filmDbStorage.getFilmById(4));
+        assertEquals(Optional.of(film4), filmDbStorage.getFilmById(4));
     }
 
     @Test
@@ -101,15 +111,15 @@ class FilmDbStorageTest {
         film3.setName("film3Upd");
         film3.setDuration(50);
 
-        filmDbStorage.updateFilm(film1);
-        filmDbStorage.updateFilm(film2);
-        filmDbStorage.updateFilm(film3);
+        filmDbStorage.updateFilm(film1, false);
+        filmDbStorage.updateFilm(film2, false);
+        filmDbStorage.updateFilm(film3, false);
 
         List<Film> expected = List.of(film1, film2, film3);
         List<Film> actual = List.of(
-                filmDbStorage.getFilmById(1),
-                filmDbStorage.getFilmById(2),
-                filmDbStorage.getFilmById(3));
+                filmDbStorage.getFilmById(1).orElseThrow(),
+                filmDbStorage.getFilmById(2).orElseThrow(),
+                filmDbStorage.getFilmById(3).orElseThrow());
 
         assertEquals(expected, actual);
     }
@@ -128,6 +138,35 @@ class FilmDbStorageTest {
         assertEquals(Collections.emptyList(), filmDbStorage.getFilms());
     }
 
+    @Test
+    void deleteFilmsAndLikesByUsersShouldDeleteInBatches() {
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user1", "user1login", "user1@user.com", Date.valueOf("2000-01-01"));
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user2", "user2login", "user2@user.com", Date.valueOf("2000-01-01"));
+        filmDbStorage.addLike(1, 1);
+        filmDbStorage.addLike(2, 1);
+        filmDbStorage.addLike(3, 1);
+        filmDbStorage.addLike(2, 2);
+
+        assertEquals(List.of(1, 2, 3), filmDbStorage.deleteLikesByUsers(List.of(1), 2).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(List.of(2, 3), filmDbStorage.deleteFilms(List.of(2, 3, 999), 1).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(List.of(film1), filmDbStorage.getFilms());
+        assertEquals(Collections.emptyMap(), filmDbStorage.getLikesCounts());
+    }
+
+    @Test
+    void filmsShouldShareMpaFromDictionary() {
+        List<Film> films = filmDbStorage.getFilms();
+
+        assertSame(films.get(0).getMpa(), films.get(1).getMpa());
+        assertSame(films.get(0).getMpa(), filmDbStorage.getFilmById(3).orElseThrow().getMpa());
+    }
+
     @Test
     void filmExistsShouldReturnFalse_ifWrongId() {
         assertTrue(filmDbStorage.filmExists(1));
@@ -137,4 +176,73 @@ class FilmDbStorageTest {
         assertFalse(filmDbStorage.filmExists(4));
         assertFalse(filmDbStorage.filmExists(999));
     }
+
+    @Test
+    void getFilmsByIdsShouldReturnRequestedFilms() {
+        assertEquals(List.of(film1, film3), filmDbStorage.getFilmsByIds(List.of(1, 3, 999)));
+        assertEquals(Collections.emptyList(), filmDbStorage.getFilmsByIds(Collections.emptyList()));
+        assertEquals(List.of(film1, film2, film3), filmDbStorage.getFilmsByIds(
+                IntStream.rangeClosed(1, 1200).boxed().collect(Collectors.toList())));
+    }
+
+    @Test
+    void getLikesCountsShouldCountLikesOfEveryFilm() {
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user1", "user1login", "user1@user.com", Date.valueOf("2000-01-01"));
+        jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
+                "user2", "user2login", "user2@user.com", Date.valueOf("2000-01-01"));
+
+        filmDbStorage.addLike(1, 1);
+        filmDbStorage.addLike(1, 2);
+        filmDbStorage.addLike(3, 2);
+
+        assertEquals(Map.of(1, 2, 3, 1), filmDbStorage.getLikesCounts());
+        assertEquals(List.of(1, 3), filmDbStorage.getLikedFilmsIds(2));
+
+        assertEquals(List.of(3), filmDbStorage.getLikedFilmsIds(2, 1, 10));
+        assertEquals(List.of(1), filmDbStorage.getLikedFilmsIds(2, 0, 1));
+        assertEquals(Collections.emptyList(), filmDbStorage.getLikedFilmsIds(2, 3, 10));
+        assertEquals(List.of(3), filmDbStorage.getLikedFilmsIds(2, List.of(2, 3, 999)));
+        assertEquals(Collections.emptyList(), filmDbStorage.getLikedFilmsIds(2, Collections.emptyList()));
+
+        assertTrue(filmDbStorage.deleteLike(1, 1));
+        assertFalse(filmDbStorage.deleteLike(1, 1));
+        assertEquals(Map.of(1, 1, 3, 1), filmDbStorage.getLikesCounts());
+    }
+
+    @Test
+    void updateFilmShouldCheckVersion() {
+        film1.setName("film1Upd");
+        film1.setVersion(0);
+        filmDbStorage.updateFilm(film1, false);
+
+        assertEquals(1, film1.getVersion());
+        assertEquals(1, filmDbStorage.getFilmById(1).orElseThrow().getVersion());
+
+        film1.setVersion(0);
+        assertThrows(ConflictException.class, () -> filmDbStorage.updateFilm(film1, false));
+
+        film1.setVersion(null);
+        film1.setDuration(95);
+        filmDbStorage.updateFilm(film1, false);
+        assertEquals(2, film1.getVersion());
+
+        Film unknown = Film.builder().id(999).name("film999")
+                .releaseDate(LocalDate.of(2003, 1, 1))
+                .duration(120).mpa(new Mpa(1, "G")).version(0).build();
+        assertThrows(NotFoundException.class, () -> filmDbStorage.updateFilm(unknown, false));
+    }
+
+    @Test
+    void updateFilmShouldSkipUnchangedFilm() {
+        film1.setVersion(0);
+
+        assertFalse(filmDbStorage.updateFilm(film1, false));
+        assertEquals(0, film1.getVersion());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from changes", Integer.class));
+
+        assertTrue(filmDbStorage.updateFilm(film1, true));
+        assertEquals(1, film1.getVersion());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from changes", Integer.class));
+    }
 }
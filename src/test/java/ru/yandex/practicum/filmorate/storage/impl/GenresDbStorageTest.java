@@ -7,7 +7,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FilmGenresIndex;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
@@ -16,9 +16,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GenresDbStorageTest {
     EmbeddedDatabase embeddedDatabase;
@@ -62,13 +66,13 @@ class GenresDbStorageTest {
     }
 
     @Test
-    void getGenreByIdShouldReturnGenreOrThrowException() {
-        assertEquals(comedy, genreDbStorage.getGenreById(1));
-        assertEquals(thriller, genreDbStorage.getGenreById(4));
-        assertEquals(action, genreDbStorage.getGenreById(6));
+    void getGenreByIdShouldReturnGenreOrEmpty() {
+        assertEquals(Optional.of(comedy), genreDbStorage.getGenreById(1));
+        assertEquals(Optional.of(thriller), genreDbStorage.getGenreById(4));
+        assertEquals(Optional.of(action), genreDbStorage.getGenreById(6));
 
-        assertThrows(NotFoundException.class, () -> genreDbStorage.getGenreById(7));
-        assertThrows(NotFoundException.class, () -> genreDbStorage.getGenreById(999));
+        assertEquals(Optional.empty(), genreDbStorage.getGenreById(7));
+        assertEquals(Optional.empty(), genreDbStorage.getGenreById(999));
     }
 
     @Test
@@ -86,14 +90,12 @@ class GenresDbStorageTest {
         jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
                 3, 1);
 
-        Map<Integer, List<Genre>> expected = new HashMap<>();
-        expected.put(1, List.of(drama, action));
-        expected.put(2, List.of(animation, documentary, action));
-        expected.put(3, List.of(comedy));
-
-        Map<Integer, List<Genre>> actual = genreDbStorage.getAllFilmsGenres();
+        FilmGenresIndex actual = genreDbStorage.getAllFilmsGenres();
 
-        assertEquals(expected, actual);
+        assertEquals(List.of(drama, action), actual.get(1));
+        assertEquals(List.of(animation, documentary, action), actual.get(2));
+        assertEquals(List.of(comedy), actual.get(3));
+        assertEquals(Collections.emptyList(), actual.get(4));
     }
 
     @Test
@@ -149,6 +151,50 @@ class GenresDbStorageTest {
                 "select genre_id from films_genres where film_id = ?", Integer.class, 1);
 
         assertEquals(expected, actual);
+        assertEquals(List.of(comedy, documentary), genreDbStorage.getGenresByFilmId(1));
+    }
+
+    @Test
+    void updateFilmGenresShouldWriteOnlyDifference() {
+        jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
+                1, 2);
+        jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
+                1, 6);
+
+        Film film = Film.builder().id(1).genres(List.of(action, comedy, action)).build();
+
+        assertTrue(genreDbStorage.updateFilmGenres(film));
+        assertEquals(List.of(comedy, action), film.getGenres());
+        assertFalse(genreDbStorage.updateFilmGenres(film));
+        assertEquals(List.of(comedy, action), film.getGenres());
+        assertEquals(List.of(1, 6), jdbcTemplate.queryForList(
+                "select genre_id from films_genres where film_id = ? order by genre_id", Integer.class, 1));
+    }
+
+    @Test
+    void updateFilmGenresShouldDiffAgainstDatabase_ifIndexIsStale() {
+        assertEquals(List.of(), genreDbStorage.getGenresByFilmId(1));
+        jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
+                1, 2);
+
+        Film film = Film.builder().id(1).genres(List.of(comedy)).build();
+
+        assertTrue(genreDbStorage.updateFilmGenres(film));
+        assertEquals(List.of(comedy), film.getGenres());
+        assertEquals(List.of(1), jdbcTemplate.queryForList(
+                "select genre_id from films_genres where film_id = ? order by genre_id", Integer.class, 1));
+    }
+
+    @Test
+    void getGenresByFilmIdShouldReturnSharedGenreInstances() {
+        jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
+                1, 2);
+        jdbcTemplate.update("insert into films_genres (film_id, genre_id) values (?, ?)",
+                2, 2);
+
+        assertSame(genreDbStorage.getGenresByFilmId(1).get(0), genreDbStorage.getGenresByFilmId(2).get(0));
+        assertSame(genreDbStorage.getGenreById(2).orElseThrow(), genreDbStorage.getGenresByFilmId(1).get(0));
+        assertThrows(UnsupportedOperationException.class, () -> genreDbStorage.getGenresByFilmId(1).add(comedy));
     }
 
     @Test
@@ -171,5 +217,6 @@ class GenresDbStorageTest {
                 "select genre_id from films_genres where film_id = ?", Integer.class, 1);
 
         assertEquals(expectedAfterDelete, actualAfterDelete);
+        assertEquals(Collections.emptyList(), genreDbStorage.getGenresByFilmId(1));
     }
 }
@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LikesShardsTest {
+    EmbeddedDatabase primary;
+    List<EmbeddedDatabase> shardDatabases;
+    LikesShards likesShards;
+    FilmDbStorage filmDbStorage;
+
+    @BeforeEach
+    public void setUp() {
+        primary = new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .addDefaultScripts()
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+        shardDatabases = IntStream.range(0, 3)
+                .mapToObj(i -> new EmbeddedDatabaseBuilder()
+                        .generateUniqueName(true)
+                        .addScript("likes-shard.sql")
+                        .setType(EmbeddedDatabaseType.H2)
+                        .build())
+                .collect(Collectors.toList());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primary);
+        likesShards = new LikesShards(shardDatabases.stream().map(JdbcTemplate::new).collect(Collectors.toList()));
+        filmDbStorage = new FilmDbStorage(jdbcTemplate, new ChangeDbStorage(jdbcTemplate),
+                new MpaDbStorage(jdbcTemplate), likesShards);
+
+        for (int i = 1; i <= 6; i++) {
+            jdbcTemplate.update("insert into films (name, release_date, duration, mpa_id) values (?, ?, ?, ?)",
+                    "film" + i, Date.valueOf("2000-01-01"), 90, 1);
+        }
+    }
+
+    @AfterEach
+    public void shutDown() throws Exception {
+        likesShards.destroy();
+        primary.shutdown();
+        shardDatabases.forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void likesShouldBeSpreadAcrossShardsAndMerged() {
+        like(1, 1, 2, 3);
+        like(2, 1);
+        like(4, 1, 2);
+        like(5, 1, 2, 3, 4);
+
+        assertTrue(shardDatabases.stream()
+                .filter(shard -> count(shard) > 0)
+                .count() > 1);
+        assertEquals(Map.of(1, 3, 2, 1, 4, 2, 5, 4), filmDbStorage.getLikesCounts());
+        assertEquals(4, filmDbStorage.getLikesCount(5));
+        assertEquals(List.of(1, 2, 4, 5), filmDbStorage.getLikedFilmsIds(1).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), filmDbStorage.getLikedFilmsIds(1, 0, 2));
+        assertEquals(List.of(4, 5), filmDbStorage.getLikedFilmsIds(1, 2, 2));
+        assertEquals(List.of(2, 5), filmDbStorage.getLikedFilmsIds(1, List.of(2, 3, 5)).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+        assertThrows(ValidationException.class, () -> filmDbStorage.addLike(1, 1));
+
+        assertTrue(filmDbStorage.deleteLike(2, 1));
+        assertFalse(filmDbStorage.deleteLike(2, 1));
+    }
+
+    @Test
+    void getMostPopularFilmsShouldMergeShardTopsAndFillWithUnliked() {
+        like(3, 1, 2, 3);
+        like(6, 1, 2);
+        like(2, 1, 2);
+        like(4, 1);
+
+        assertEquals(List.of(3, 2, 6), ids(filmDbStorage.getMostPopularFilms(3)));
+        assertEquals(List.of(3, 2, 6, 4, 1, 5), ids(filmDbStorage.getMostPopularFilms(10)));
+    }
+
+    @Test
+    void deletesShouldCascadeAcrossShards() {
+        like(1, 1, 2);
+        like(2, 1);
+        like(3, 2);
+        like(5, 1);
+
+        assertEquals(List.of(1, 2, 5), filmDbStorage.deleteLikesByUsers(List.of(1), 1).stream()
+                .sorted()
+                .collect(Collectors.toList()));
+        filmDbStorage.deleteFilm(3);
+        assertEquals(List.of(1), filmDbStorage.deleteFilms(List.of(1), 1));
+
+        assertEquals(Map.of(), filmDbStorage.getLikesCounts());
+        assertEquals(0, shardDatabases.stream().mapToInt(LikesShardsTest::count).sum());
+    }
+
+    @Test
+    void shardWritesShouldBeUndone_ifPrimaryTransactionRollsBack() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        like(2, 1, 2);
+
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            filmDbStorage.addLike(1, 1);
+            filmDbStorage.deleteLike(2, 1);
+            filmDbStorage.deleteLikesByUsers(List.of(2), 1);
+            throw new IllegalStateException("primary write failed");
+        }));
+
+        assertEquals(Map.of(2, 2), filmDbStorage.getLikesCounts());
+        assertEquals(2, shardDatabases.stream().mapToInt(LikesShardsTest::count).sum());
+        assertEquals(2, new JdbcTemplate(primary).queryForObject("select count(*) from changes", Integer.class));
+    }
+
+    private void like(int filmId, int... userIds) {
+        for (int userId : userIds) {
+            filmDbStorage.addLike(filmId, userId);
+        }
+    }
+
+    private static int count(EmbeddedDatabase shard) {
+        Integer count = new JdbcTemplate(shard).queryForObject("select count(*) from films_likes", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static List<Integer> ids(List<Film> films) {
+        return films.stream().map(Film::getId).collect(Collectors.toList());
+    }
+}
@@ -7,13 +7,12 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
-import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class MpaDbStorageTest {
     EmbeddedDatabase embeddedDatabase;
@@ -49,11 +48,11 @@ class MpaDbStorageTest {
     }
 
     @Test
-    void getMpaByIdShouldReturnMpaOrThrowException() {
+    void getMpaByIdShouldReturnMpaOrEmpty() {
         List<Mpa> expected = List.of(G, NC17);
-        List<Mpa> actual = List.of(mpaDbStorage.getMpaById(1), mpaDbStorage.getMpaById(5));
+        List<Mpa> actual = List.of(mpaDbStorage.getMpaById(1).orElseThrow(), mpaDbStorage.getMpaById(5).orElseThrow());
 
         assertEquals(expected, actual);
-        assertThrows(NotFoundException.class, () -> mpaDbStorage.getMpaById(6));
+        assertEquals(Optional.empty(), mpaDbStorage.getMpaById(6));
     }
 }
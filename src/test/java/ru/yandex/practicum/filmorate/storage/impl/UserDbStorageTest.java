@@ -7,15 +7,21 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.exception.ConflictException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.Date;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class UserDbStorageTest {
@@ -33,7 +39,7 @@ class UserDbStorageTest {
                 .setType(EmbeddedDatabaseType.H2)
                 .build();
         jdbcTemplate = new JdbcTemplate(embeddedDatabase);
-        userDbStorage = new UserDbStorage(jdbcTemplate);
+        userDbStorage = new UserDbStorage(jdbcTemplate, new ChangeDbStorage(jdbcTemplate));
 
         jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
                 "user1", "user1login", "user1@user.com", Date.valueOf("2000-01-01"));
@@ -73,11 +79,12 @@ class UserDbStorageTest {
     void getUserByIdShouldReturnUser() {
         List<User> expected = List.of(user1, user2, user3);
         List<User> actual = List.of(
-                userDbStorage.getUserById(1),
-                userDbStorage.getUserById(2),
-                userDbStorage.getUserById(3));
+                userDbStorage.getUserById(1).orElseThrow(),
+                userDbStorage.getUserById(2).orElseThrow(),
+                userDbStorage.getUserById(3).orElseThrow());
 
         assertEquals(expected, actual);
+        assertEquals(Optional.empty(), userDbStorage.getUserById(999));
     }
 
     @Test
@@ -88,7 +95,7 @@ class UserDbStorageTest {
                 .build();
 
         userDbStorage.addUser(user4);
-        assertEquals(user4, userDbStorage.getUserById(4));
+        assertEquals(Optional.of(user4), userDbStorage.getUserById(4));
     }
 
     @Test
@@ -108,9 +115,9 @@ class UserDbStorageTest {
 
         List<User> expected = List.of(user1, user2, user3);
         List<User> actual = List.of(
-                userDbStorage.getUserById(1),
-                userDbStorage.getUserById(2),
-                userDbStorage.getUserById(3));
+                userDbStorage.getUserById(1).orElseThrow(),
+                userDbStorage.getUserById(2).orElseThrow(),
+                userDbStorage.getUserById(3).orElseThrow());
 
         assertEquals(expected, actual);
     }
@@ -129,6 +136,19 @@ class UserDbStorageTest {
         assertEquals(Collections.emptyList(), userDbStorage.getUsers());
     }
 
+    @Test
+    void deleteUsersShouldDeleteFriendshipsInBatchesAndReturnDeletedIds() {
+        userDbStorage.addFriend(1, 2);
+        userDbStorage.addFriend(2, 1);
+        userDbStorage.addFriend(3, 1);
+        userDbStorage.addFriend(2, 3);
+
+        assertEquals(List.of(1), userDbStorage.deleteUsers(List.of(1, 77), 1));
+        assertEquals(List.of(user2, user3), userDbStorage.getUsers());
+        assertEquals(List.of(user3), userDbStorage.getUserFriends(2));
+        assertEquals(Collections.emptyList(), userDbStorage.getUserFriends(3));
+    }
+
     @Test
     void getUserFriendsShouldReturnUserFriends() {
         jdbcTemplate.update("insert into users (name, login, email, birthday) values (?, ?, ?, ?)",
@@ -191,4 +211,30 @@ class UserDbStorageTest {
         assertFalse(userDbStorage.userExists(4));
         assertFalse(userDbStorage.userExists(4444));
     }
+
+    @Test
+    void updateUserShouldCheckVersion() {
+        user1.setLogin("user111");
+        user1.setVersion(0);
+        userDbStorage.updateUser(user1);
+
+        assertEquals(1, user1.getVersion());
+        assertEquals(1, userDbStorage.getUserById(1).orElseThrow().getVersion());
+
+        user1.setVersion(0);
+        assertThrows(ConflictException.class, () -> userDbStorage.updateUser(user1));
+
+        user1.setId(999);
+        user1.setVersion(null);
+        assertThrows(NotFoundException.class, () -> userDbStorage.updateUser(user1));
+    }
+
+    @Test
+    void getUsersByIdsShouldReturnRequestedUsers() {
+        List<Integer> ids = IntStream.rangeClosed(1, 1200).boxed().collect(Collectors.toList());
+
+        assertEquals(List.of(user1, user2, user3), userDbStorage.getUsersByIds(ids));
+        assertEquals(List.of(user2), userDbStorage.getUsersByIds(List.of(2, 999)));
+        assertEquals(Collections.emptyList(), userDbStorage.getUsersByIds(Collections.emptyList()));
+    }
 }
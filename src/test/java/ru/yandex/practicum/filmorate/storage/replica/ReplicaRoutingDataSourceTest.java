@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.storage.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRoutingDataSourceTest {
+    EmbeddedDatabase primary;
+    EmbeddedDatabase staleReplica;
+    EmbeddedDatabase freshReplica;
+    ReplicaLagMonitor monitor;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate readOnly;
+    TransactionTemplate readWrite;
+
+    @BeforeEach
+    public void setUp() {
+        primary = database();
+        staleReplica = database();
+        freshReplica = database();
+
+        ReplicaSelector selector = new ReplicaSelector(2, 2000);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary,
+                List.of(staleReplica, freshReplica), selector);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        monitor = new ReplicaLagMonitor(routing, selector);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+
+        replicate(staleReplica, System.currentTimeMillis() - 60000);
+        replicate(freshReplica, System.currentTimeMillis());
+        monitor.tick();
+        ReplicaRouting.reset();
+    }
+
+    @AfterEach
+    public void shutDown() {
+        ReplicaRouting.reset();
+        Stream.of(primary, staleReplica, freshReplica).forEach(EmbeddedDatabase::shutdown);
+    }
+
+    @Test
+    void readOnlyTransactionsShouldUseFreshReplica() {
+        assertEquals(name(freshReplica), readOnly.execute(status -> currentDatabase()));
+        assertEquals(name(freshReplica), readOnly.execute(status -> currentDatabase()));
+        assertEquals(name(primary), ReplicaRouting.onPrimary(() -> readOnly.execute(status -> currentDatabase())));
+    }
+
+    @Test
+    void readsShouldStayOnPrimaryUntilReplicaCatchesUpWithWrite() {
+        assertEquals(name(primary), readWrite.execute(status -> currentDatabase()));
+        long lastWrite = ReplicaRouting.lastWrite();
+        assertTrue(lastWrite > 0);
+
+        assertEquals(name(primary), readOnly.execute(status -> currentDatabase()));
+
+        replicate(freshReplica, lastWrite);
+        monitor.tick();
+        assertEquals(name(freshReplica), readOnly.execute(status -> currentDatabase()));
+
+        ReplicaRouting.reset();
+        ReplicaRouting.readAfter(lastWrite + 60000);
+        assertEquals(name(primary), readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void nonTransactionalReadsShouldNotPinToPrimary() {
+        assertEquals(name(primary), currentDatabase());
+        assertEquals(0, ReplicaRouting.lastWrite());
+        assertEquals(name(freshReplica), readOnly.execute(status -> currentDatabase()));
+
+        readWrite.executeWithoutResult(status -> status.setRollbackOnly());
+        assertEquals(0, ReplicaRouting.lastWrite());
+    }
+
+    @Test
+    void unavailableReplicaShouldBeSkipped() {
+        new JdbcTemplate(freshReplica).execute("DROP TABLE replication_heartbeat");
+        monitor.tick();
+
+        assertEquals(name(primary), readOnly.execute(status -> currentDatabase()));
+        assertEquals(0, ReplicaRouting.lastWrite());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static String name(EmbeddedDatabase database) {
+        return new JdbcTemplate(database).queryForObject("SELECT DATABASE()", String.class);
+    }
+
+    private static void replicate(EmbeddedDatabase replica, long heartbeat) {
+        new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET ts = ? WHERE id = 1", heartbeat);
+    }
+
+    private static EmbeddedDatabase database() {
+        return new EmbeddedDatabaseBuilder()
+                .generateUniqueName(true)
+                .addDefaultScripts()
+                .setType(EmbeddedDatabaseType.H2)
+                .build();
+    }
+}
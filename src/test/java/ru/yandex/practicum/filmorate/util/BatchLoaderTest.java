@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchLoaderTest {
+    @Test
+    void loadShouldMergeConcurrentLookupsIntoOneBatch() {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer> loader = new BatchLoader<>(ids -> {
+            batches.add(ids);
+            return ids.stream().filter(id -> id < 100).collect(Collectors.toList());
+        }, Integer::intValue, TimeUnit.MILLISECONDS.toNanos(200), 500);
+
+        List<CompletableFuture<Optional<Integer>>> results = new ArrayList<>();
+        for (int id : new int[]{1, 2, 2, 300}) {
+            results.add(CompletableFuture.supplyAsync(() -> loader.load(id)));
+        }
+
+        assertEquals(List.of(Optional.of(1), Optional.of(2), Optional.of(2), Optional.empty()),
+                results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+        assertEquals(1, batches.size());
+        assertEquals(3, batches.get(0).size());
+    }
+
+    @Test
+    void executeShouldShareInFlightCallAndRethrowErrors() throws InterruptedException {
+        SingleFlight<Integer, Integer> singleFlight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> calls = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(1, () -> {
+            calls.add(1);
+            started.countDown();
+            await(release);
+            return 42;
+        }));
+        started.await();
+        CompletableFuture<Integer> follower = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute(1, () -> calls.size() + 100));
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+
+        assertEquals(42, leader.join());
+        assertEquals(42, follower.join());
+        assertEquals(1, calls.size());
+
+        Function<Integer, Integer> failing = id -> singleFlight.execute(id, () -> {
+            throw new IllegalStateException("failed");
+        });
+        assertThrows(IllegalStateException.class, () -> failing.apply(2));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+    @Test
+    void tryAcquireShouldAllowBurstThenRefillAtRate() {
+        AtomicLong nanos = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(10, 3, 1024, nanos::get);
+
+        assertTrue(limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(1));
+        assertFalse(limiter.tryAcquire(1));
+        assertTrue(limiter.tryAcquire(2));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertTrue(limiter.tryAcquire(1));
+        assertFalse(limiter.tryAcquire(1));
+    }
+
+    @Test
+    void tryAcquireShouldKeepMemoryBoundedByEvictingOldestBuckets() {
+        AtomicLong nanos = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 16, nanos::get);
+
+        for (long key = 1; key <= 10_000; key++) {
+            nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            assertTrue(limiter.tryAcquire(key));
+        }
+        assertFalse(limiter.tryAcquire(10_000));
+    }
+}